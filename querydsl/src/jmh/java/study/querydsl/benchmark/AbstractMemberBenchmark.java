@@ -0,0 +1,42 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 메모리 H2 위에 JPA 계층만 띄우고 members 건수만큼 회원을 넣어두는 공통 상태
+ * 팀은 100개 (teamA ~ teamZ, team26 ~ team99), 회원 이름은 member0 ~ member{n-1}
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractMemberBenchmark {
+
+    protected static final int TEAMS = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int members;
+
+    protected ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContexts.start(TEAMS, members);
+        setUp();
+    }
+
+    /** 빈을 꺼내는 등 하위 벤치마크 준비 */
+    protected abstract void setUp();
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    protected <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.seed.MemberSeeder;
+import study.querydsl.seed.SeedProperties;
+
+/** 메모리 H2(bench 프로파일)로 JPA 계층만 띄우고 샘플 데이터를 넣는다 */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(int teams, int members) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench");
+
+        SeedProperties seed = context.getBean(SeedProperties.class);
+        seed.setTeams(teams);
+        seed.setMembersPerTeam(Math.max(1, members / teams));
+        context.getBean(MemberSeeder.class).seed(seed);
+        return context;
+    }
+}
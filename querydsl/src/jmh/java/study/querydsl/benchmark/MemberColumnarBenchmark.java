@@ -0,0 +1,52 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberColumnarRepository;
+import study.querydsl.repository.MemberCountCache;
+import study.querydsl.repository.MemberRepository;
+
+/** searchPageComplex - DB(count 캐시 없이) vs 메모리 컬럼 저장소, count만 따로 */
+public class MemberColumnarBenchmark extends AbstractMemberBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"NONE", "USERNAME", "TEAM_AGE_RANGE"})
+    public SearchFilter filter;
+
+    private MemberRepository memberRepository;
+    private MemberCountCache countCache;
+    private MemberColumnarRepository columnarRepository;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+
+    @Override
+    protected void setUp() {
+        memberRepository = bean(MemberRepository.class);
+        countCache = bean(MemberCountCache.class);
+        columnarRepository = bean(MemberColumnarRepository.class);
+        columnarRepository.rebuild(); //seed가 넣은 회원을 한 번에 정렬된 상태로
+        condition = filter.condition();
+        pageRequest = PageRequest.of(1, PAGE_SIZE); //두 번째 페이지 - DB 쪽도 count를 실행하도록
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> dbSearchPageComplex() {
+        countCache.invalidateAll();
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> columnarSearchPageComplex() {
+        return columnarRepository.searchPageComplex(condition, pageRequest);
+    }
+
+    @Benchmark
+    public long columnarCount() {
+        return columnarRepository.count(condition);
+    }
+}
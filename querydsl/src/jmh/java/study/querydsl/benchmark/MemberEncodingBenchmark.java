@@ -0,0 +1,66 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import study.querydsl.config.WebConfig;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * /v1/members 응답(List<MemberTeamDto>) 인코딩 - JSON vs Smile vs CBOR
+ * DB 없이 샘플 DTO만 만들어서 인코딩 비용만 잰다. 바이트 수는 setUp에서 출력
+ */
+@State(Scope.Benchmark)
+public class MemberEncodingBenchmark {
+
+    private static final int TEAMS = 100;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<MemberTeamDto> members;
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private ObjectMapper cbor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        smile = Jackson2ObjectMapperBuilder.json().factory(WebConfig.smileFactory()).build();
+        cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+        members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long teamId = i % TEAMS + 1;
+            members.add(new MemberTeamDto((long) i + 1, "member" + i, i % 100, teamId, "team" + teamId));
+        }
+
+        System.out.printf("%n%d rows - json=%d bytes, smile=%d bytes, cbor=%d bytes%n",
+                rows, json().length, smile().length, cbor().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return json.writeValueAsBytes(members);
+    }
+
+    @Benchmark
+    public byte[] smile() throws JsonProcessingException {
+        return smile.writeValueAsBytes(members);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(members);
+    }
+}
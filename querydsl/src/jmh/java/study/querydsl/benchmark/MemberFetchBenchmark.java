@@ -0,0 +1,95 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.SqlStatementCounter;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 회원 10k / 팀 100 - 회원 목록을 읽고 팀 이름까지 접근하는 비용 (LAZY 그대로 vs 페치 조인)
+ * 실행된 SQL 수는 trial 시작 시 방식별로 한 번 출력한다.
+ */
+@State(Scope.Benchmark)
+public class MemberFetchBenchmark {
+
+    private static final int TEAMS = 100;
+    private static final int MEMBERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private EntityManager em;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(TEAMS, MEMBERS);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        em = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        System.out.printf("%n[statements] lazy=%d fetchJoin=%d querydslFetchJoin=%d teamMembersBatch=%d%n",
+                statements(this::lazyTeam), statements(this::fetchJoinTeam),
+                statements(this::querydslFetchJoinTeam), statements(this::teamMembersBatch));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** findAll 후 팀 접근 - 팀 수만큼 추가 쿼리 (1 + 100) */
+    @Benchmark
+    public int lazyTeam() {
+        return readOnlyTransaction.execute(status -> touchTeams(memberJpaRepository.findAll()));
+    }
+
+    @Benchmark
+    public int fetchJoinTeam() {
+        return readOnlyTransaction.execute(status -> touchTeams(memberJpaRepository.findAllWithTeam()));
+    }
+
+    @Benchmark
+    public int querydslFetchJoinTeam() {
+        return readOnlyTransaction.execute(status -> touchTeams(memberJpaRepository.findAll_QuerydslWithTeam()));
+    }
+
+    /** 팀 목록 후 members 접근 - @BatchSize(100) 덕분에 1 + 1 (배치가 없으면 1 + 100) */
+    @Benchmark
+    public int teamMembersBatch() {
+        return readOnlyTransaction.execute(status -> {
+            int size = 0;
+            for (Team team : em.createQuery("select t from Team t", Team.class).getResultList()) {
+                size += team.getMembers().size();
+            }
+            return size;
+        });
+    }
+
+    private int touchTeams(List<Member> members) {
+        int length = 0;
+        for (Member member : members) {
+            length += member.getTeam().getName().length();
+        }
+        return length;
+    }
+
+    private long statements(Supplier<Integer> benchmark) {
+        long before = SqlStatementCounter.current();
+        benchmark.get();
+        return SqlStatementCounter.current() - before;
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+/** searchPageSimple (fetchResults) vs searchPageComplex (count 분리) - 페이지 깊이별 */
+public class MemberPageBenchmark extends AbstractMemberBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"NONE", "USERNAME", "TEAM_AGE_RANGE"})
+    public SearchFilter filter;
+
+    @Param({"0", "100", "10000"})
+    public int page;
+
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+
+    @Override
+    protected void setUp() {
+        memberRepository = bean(MemberRepository.class);
+        condition = filter.condition();
+        pageRequest = PageRequest.of(page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.controller.MemberPageWriter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * /v3 응답 - PageImpl을 ObjectMapper로 vs MemberPageWriter (조회 결과를 JsonGenerator로 바로)
+ * 응답 크기는 setUp에서 출력, 한 번에 할당하는 bytes는 gc 프로파일러의 gc.alloc.rate.norm
+ */
+public class MemberPageSerializationBenchmark extends AbstractMemberBenchmark {
+
+    @Param({"NONE", "TEAM_AGE_RANGE"})
+    public SearchFilter filter;
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    private MemberRepository memberRepository;
+    private MemberPageWriter memberPageWriter;
+    private ObjectMapper objectMapper;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+    private Page<MemberTeamDto> fetchedPage;
+
+    @Override
+    protected void setUp() {
+        memberRepository = bean(MemberRepository.class);
+        memberPageWriter = bean(MemberPageWriter.class);
+        objectMapper = bean(ObjectMapper.class);
+        condition = filter.condition();
+        pageRequest = PageRequest.of(0, pageSize);
+        fetchedPage = memberRepository.searchPageComplex(condition, pageRequest);
+
+        try {
+            System.out.printf("%n응답 크기 pageImpl=%d bytes, compact=%d bytes%n", pageImplJson(), compactJson());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** 조회 + 직렬화 - 지금 /v3 */
+    @Benchmark
+    public long pageImplJson() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, memberRepository.searchPageComplex(condition, pageRequest));
+        return out.bytes;
+    }
+
+    /** 조회 + 직렬화 - /v3/members/compact */
+    @Benchmark
+    public long compactJson() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        memberPageWriter.write(out, condition, pageRequest);
+        return out.bytes;
+    }
+
+    /** 직렬화만 - 이미 조회한 PageImpl */
+    @Benchmark
+    public long pageImplSerializeOnly() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, fetchedPage);
+        return out.bytes;
+    }
+
+    /** 쓴 바이트 수만 센다 */
+    static class CountingOutputStream extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
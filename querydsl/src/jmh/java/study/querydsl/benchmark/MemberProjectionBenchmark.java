@@ -0,0 +1,73 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/** 같은 한 페이지(teamA)를 프로젝션 방식만 바꿔서 조회 */
+public class MemberProjectionBenchmark extends AbstractMemberBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private JPAQueryFactory queryFactory;
+
+    @Override
+    protected void setUp() {
+        queryFactory = new JPAQueryFactory(bean(EntityManager.class));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"))
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> constructorProjection() {
+        return queryFactory
+                .select(Projections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"))
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<Tuple> tupleProjection() {
+        return queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"))
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    /** 엔티티 조회 - 영속성 컨텍스트 없이 호출되므로 매번 새 EntityManager */
+    @Benchmark
+    public List<Member> entityProjection() {
+        return queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .where(team.name.eq("teamA"))
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 트랜잭션 안에서 전체 회원 엔티티를 읽고 커밋(flush)까지 하는 비용 - 일반 조회 vs 읽기 전용 조회
+ * 시간은 jmh 결과, 할당량은 gc 프로파일러, 영속성 컨텍스트가 잡고 있는 힙은 trial 시작 시 한 번 출력한다.
+ * ex) ./gradlew jmh -PjmhIncludes=MemberReadOnlyBenchmark  (100k 기준은 members=100000 결과)
+ */
+public class MemberReadOnlyBenchmark extends AbstractMemberBenchmark {
+
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    protected void setUp() {
+        memberJpaRepository = bean(MemberJpaRepository.class);
+        transactionTemplate = new TransactionTemplate(bean(PlatformTransactionManager.class));
+        printRetainedHeap();
+    }
+
+    private void printRetainedHeap() {
+        System.out.printf("%n[retained heap] members=%d managed=%dKB readOnly=%dKB%n", members,
+                retainedKb(memberJpaRepository::findAll), retainedKb(memberJpaRepository::findAllReadOnly));
+    }
+
+    @Benchmark
+    public int findAll() {
+        return transactionTemplate.execute(status -> memberJpaRepository.findAll().size());
+    }
+
+    @Benchmark
+    public int findAllReadOnly() {
+        return transactionTemplate.execute(status -> memberJpaRepository.findAllReadOnly().size());
+    }
+
+    /** 트랜잭션 안에서 조회 결과를 잡고 있는 동안 늘어난 힙 (GC 후 기준) */
+    private long retainedKb(Supplier<List<Member>> finder) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        EntityManager em = bean(EntityManager.class);
+        return transactionTemplate.execute(status -> {
+            memory.gc();
+            long before = memory.getHeapMemoryUsage().getUsed();
+            List<Member> result = finder.get();
+            memory.gc();
+            long after = memory.getHeapMemoryUsage().getUsed();
+            Reference.reachabilityFence(result);
+            em.clear();
+            return (after - before) / 1024;
+        });
+    }
+}
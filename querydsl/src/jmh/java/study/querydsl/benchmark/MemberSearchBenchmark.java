@@ -0,0 +1,35 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+/** MemberJpaRepository.search (where 파라미터) vs searchByBuilder (BooleanBuilder) */
+public class MemberSearchBenchmark extends AbstractMemberBenchmark {
+
+    @Param({"NONE", "USERNAME", "TEAM_AGE_RANGE"})
+    public SearchFilter filter;
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberSearchCondition condition;
+
+    @Override
+    protected void setUp() {
+        memberJpaRepository = bean(MemberJpaRepository.class);
+        condition = filter.condition();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+/**
+ * 요청마다 Querydsl 표현식을 새로 만드는 search vs 미리 등록한 named query를 쓰는 searchPrecompiled
+ * 결과가 적은 조건으로 쿼리 생성 비용 차이가 드러나게 한다 - gc 프로파일러의 gc.alloc.rate.norm(B/op) 비교
+ * ex) ./gradlew jmh -PjmhIncludes=MemberSearchTemplateBenchmark
+ */
+public class MemberSearchTemplateBenchmark extends AbstractMemberBenchmark {
+
+    @Param({"USERNAME", "TEAM_AGE_RANGE"})
+    public SearchFilter filter;
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberSearchCondition condition;
+
+    @Override
+    protected void setUp() {
+        memberJpaRepository = bean(MemberJpaRepository.class);
+        condition = filter.condition();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> querydslSearch() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> precompiledSearch() {
+        return memberJpaRepository.searchPrecompiled(condition);
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.benchmark;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+/** 벤치마크에서 쓰는 검색 조건 조합 */
+public enum SearchFilter {
+
+    NONE,
+    USERNAME,
+    TEAM_AGE_RANGE;
+
+    public MemberSearchCondition condition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        switch (this) {
+            case USERNAME:
+                condition.setUsername("member500");
+                break;
+            case TEAM_AGE_RANGE:
+                condition.setTeamName("teamA");
+                condition.setAgeGoe(20);
+                condition.setAgeLoe(40);
+                break;
+            default:
+                break;
+        }
+        return condition;
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.metrics.SqlStatementCounter;
+import study.querydsl.metrics.StatementGuard;
+import study.querydsl.repository.MemberDmlInspector;
+import study.querydsl.repository.MemberSearchCache;
+
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * 실행되는 SQL 수를 세고 요청/트랜잭션별 한도를 확인하는 StatementInspector 등록
+     * 하이버네이트는 inspector를 하나만 받으므로 member DML 감지(검색 캐시 무효화)를 앞에 감싼다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(StatementGuard statementGuard,
+                                                                      MemberSearchCache memberSearchCache) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new MemberDmlInspector(new SqlStatementCounter(statementGuard), memberSearchCache));
+    }
+}
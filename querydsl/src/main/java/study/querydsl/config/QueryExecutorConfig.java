@@ -0,0 +1,58 @@
+package study.querydsl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/** 쿼리를 요청 스레드와 따로 실행할 때 쓰는 스레드 풀 - 크기와 대기열을 제한한다 */
+@Configuration
+public class QueryExecutorConfig {
+
+    /** searchPageConcurrent의 count 쿼리용 - 스레드마다 커넥션을 하나씩 잡으므로 커넥션 풀보다 작게 */
+    @Bean
+    public ThreadPoolTaskExecutor countQueryExecutor(
+            @Value("${member.concurrent-count.pool-size:4}") int poolSize,
+            @Value("${member.concurrent-count.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("count-query-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * 비동기 컨트롤러(AsyncMemberController)의 조회용 - 톰캣 스레드는 바로 돌려주고 DB 대기는 여기서
+     * 대기열까지 가득 차면 TaskRejectedException -> 503
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dbQueryExecutor(
+            @Value("${member.async.pool-size:10}") int poolSize,
+            @Value("${member.async.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("db-query-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * 팀 통계 캐시(TeamStatsCache) 재집계 전용 - dbQueryExecutor 대기열을 같이 쓰면 재집계가 몰릴 때 비동기 조회가 503이 된다
+     * 대기열은 캐시 크기만큼 (refreshAfter가 지난 키마다 하나)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor teamStatsExecutor(
+            @Value("${member.team-stats.refresh-threads:1}") int poolSize,
+            @Value("${member.team-stats.max-size:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("team-stats-");
+        return executor;
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.controller;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * /v1 ~ /v3 와 같은 조회를 dbQueryExecutor에서 실행하고 바로 톰캣 스레드를 반납한다.
+ * DB 쪽이 밀려도 톰캣은 계속 요청을 받고, 대기열이 가득 차면 503으로 빨리 거절한다.
+ */
+@RestController
+public class AsyncMemberController {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final MemberSearchCache memberSearchCache;
+    private final Executor dbQueryExecutor;
+
+    public AsyncMemberController(MemberJpaRepository memberJpaRepository, MemberRepository memberRepository,
+                                 MemberSearchCache memberSearchCache,
+                                 @Qualifier("dbQueryExecutor") Executor dbQueryExecutor) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.memberRepository = memberRepository;
+        this.memberSearchCache = memberSearchCache;
+        this.dbQueryExecutor = dbQueryExecutor;
+    }
+
+    @GetMapping("/async/v1/members")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1(MemberSearchCondition condition) {
+        return CompletableFuture.supplyAsync(() -> memberSearchCache.getOrLoad("v1", condition, null,
+                () -> memberJpaRepository.searchPrecompiled(condition)), dbQueryExecutor);
+    }
+
+    @GetMapping("/async/v2/members")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return CompletableFuture.supplyAsync(() -> memberSearchCache.getOrLoad("v2", condition, pageable,
+                () -> memberRepository.searchPageSimple(condition, pageable)), dbQueryExecutor);
+    }
+
+    @GetMapping("/async/v3/members")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        return CompletableFuture.supplyAsync(() -> memberSearchCache.getOrLoad("v3", condition, pageable,
+                () -> memberRepository.searchPageComplex(condition, pageable)), dbQueryExecutor);
+    }
+
+    /** dbQueryExecutor 대기열이 가득 참 */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("조회 요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해 주세요.");
+    }
+}
@@ -3,45 +3,21 @@ package study.querydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.seed.MemberSeeder;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
-    private final InitMemberService initMemberService;
+    private final MemberSeeder memberSeeder;
 
     /** 애플리케이션 로딩 시점 yml의 local profile로 실행됨 */
     @PostConstruct
     public void init() {
-        // init호출
-        initMemberService.init();
-    }
-
-    /** 샘플 데이터 생성 */
-    @Component
-    static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
-
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for(int i=0; i<100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member"+i, i, selectedTeam));
-            }
-        }
+        // 샘플 데이터 생성 - 개수/분포는 yml의 seed.* 로 조절
+        memberSeeder.seed();
     }
 }
@@ -1,36 +1,169 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.MemberCountedPage;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.repository.MemberColumnarRepository;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCache;
+import study.querydsl.repository.MemberSearchQueryRepository;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    /** export 시 몇 건마다 응답을 flush 할지 */
+    private static final int EXPORT_FLUSH_ROWS = 500;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberSearchCache memberSearchCache;
+    private final MemberSearchQueryRepository memberSearchQueryRepository;
+    private final MemberColumnarRepository memberColumnarRepository;
+    private final MemberPageWriter memberPageWriter;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        return memberSearchCache.getOrLoad("v1", condition, null,
+                () -> memberJpaRepository.searchPrecompiled(condition));
+    }
+
+    /** ?fields=memberId,username - 고른 속성만 조회해서 응답한다 */
+    @GetMapping(value = "/v1/members", params = "fields")
+    public List<Map<String, Object>> searchMemberV1Fields(MemberSearchCondition condition, @RequestParam String fields) {
+        Set<MemberField> selected = MemberField.parse(fields);
+        return memberSearchCache.getOrLoad(fieldsKind("v1", selected), condition, null,
+                () -> memberRepository.searchFields(condition, selected));
+    }
+
+    /** 검색 결과를 한 줄에 하나씩 JSON(NDJSON)으로 흘려보낸다 */
+    @GetMapping(value = "/v1/members/export", produces = "application/x-ndjson")
+    public void exportMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter rowWriter = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE); // flush는 직접 묶어서 한다
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.setRootValueSeparator(null);
+
+        long[] written = {0};
+        memberJpaRepository.searchStream(condition, dto -> {
+            try {
+                rowWriter.writeValue(generator, dto);
+                generator.writeRaw('\n');
+                if (++written[0] % EXPORT_FLUSH_ROWS == 0) generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
     }
 
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+        return memberSearchCache.getOrLoad("v2", condition, pageable,
+                () -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+        return memberSearchCache.getOrLoad("v3", condition, pageable,
+                () -> memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    @GetMapping(value = "/v3/members", params = "fields")
+    public Page<Map<String, Object>> searchMemberV3Fields(MemberSearchCondition condition, Pageable pageable,
+                                                          @RequestParam String fields) {
+        Set<MemberField> selected = MemberField.parse(fields);
+        return memberSearchCache.getOrLoad(fieldsKind("v3", selected), condition, pageable,
+                () -> memberRepository.searchPageFields(condition, selected, pageable));
+    }
+
+    /** v3와 같은 결과를 압축된 형태로 - 조회 결과를 DTO 없이 응답에 바로 쓴다 (MemberPageWriter) */
+    @GetMapping(value = "/v3/members/compact", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void searchMemberV3Compact(MemberSearchCondition condition, Pageable pageable,
+                                      HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        memberPageWriter.write(response.getOutputStream(), condition, pageable);
+    }
+
+    /** content와 count를 동시에 조회 */
+    @GetMapping("/v3/members/concurrent")
+    public Page<MemberTeamDto> searchMemberV3Concurrent(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchPageConcurrent(condition, pageable);
+    }
+
+    /** 전체 개수는 countCap 건까지만 (또는 추정치) - countCap은 member.count-cap-max 이하 */
+    @GetMapping("/v3/members/counted")
+    public MemberCountedPage searchMemberV3Counted(MemberSearchCondition condition, Pageable pageable,
+                                                  @RequestParam(defaultValue = "CAPPED") CountMode countMode,
+                                                  @RequestParam(defaultValue = "${member.count-cap:1000}") int countCap) {
+        return memberRepository.searchPageCounted(condition, pageable, countMode, countCap);
+    }
+
+    @GetMapping("/v4/members")
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchByCursor(condition, cursor, size);
+    }
+
+    @GetMapping("/v5/members")
+    public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    /** v3와 같은 결과 - 조인 없이 member_search 읽기 모델에서 */
+    @GetMapping("/v6/members")
+    public Page<MemberTeamDto> searchMemberV6(MemberSearchCondition condition, Pageable pageable) {
+        return memberSearchCache.getOrLoad("v6", condition, pageable,
+                () -> memberSearchQueryRepository.searchPage(condition, pageable));
+    }
+
+    /** username 앞부분/부분 일치 검색 (메모리 인덱스) */
+    @GetMapping("/v7/members")
+    public Page<MemberTeamDto> searchMemberV7(@RequestParam String keyword,
+                                              @RequestParam(defaultValue = "PREFIX") UsernameMatch match,
+                                              Pageable pageable) {
+        return memberRepository.searchByUsername(match, keyword, pageable);
+    }
+
+    /** v3와 같은 조건 - DB 대신 메모리 컬럼 저장소에서 (count도 메모리에서) */
+    @GetMapping("/v8/members")
+    public Page<MemberTeamDto> searchMemberV8(MemberSearchCondition condition, Pageable pageable) {
+        return memberColumnarRepository.searchPageComplex(condition, pageable);
+    }
+
+    /** 고른 속성(순서 포함)이 다르면 다른 캐시 항목 */
+    private static String fieldsKind(String kind, Set<MemberField> fields) {
+        return kind + "?fields=" + fields.stream().map(MemberField::property).collect(Collectors.joining(","));
     }
 }
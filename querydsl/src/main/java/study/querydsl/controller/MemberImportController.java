@@ -0,0 +1,40 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.importer.CsvImportReport;
+import study.querydsl.importer.InvalidImportRequestException;
+import study.querydsl.importer.MemberCsvImporter;
+import study.querydsl.metrics.StatementGuard;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberImportController {
+
+    private final MemberCsvImporter memberCsvImporter;
+    private final StatementGuard statementGuard;
+
+    /** 요청 본문(CSV: username,age,teamName)을 스트리밍으로 읽어서 넣는다 */
+    @PostMapping(value = "/v1/members/import", consumes = {"text/csv", "text/plain"})
+    public CsvImportReport importMembers(InputStream body,
+                                         @RequestParam(required = false) Integer commitInterval) throws IOException {
+        statementGuard.skipRequestBudget();
+        return commitInterval == null
+                ? memberCsvImporter.importCsv(body)
+                : memberCsvImporter.importCsv(body, commitInterval);
+    }
+
+    /** 잘못된 줄은 리포트에 담기므로 여기까지 오는 건 요청 파라미터 오류 - 그 밖의 예외는 500 그대로 */
+    @ExceptionHandler(InvalidImportRequestException.class)
+    public ResponseEntity<String> invalidRequest(InvalidImportRequestException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
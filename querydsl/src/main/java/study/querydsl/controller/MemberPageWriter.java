@@ -0,0 +1,66 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 페이지 검색 결과를 압축된 형태로 바로 쓴다 - 조회 결과를 DTO/List로 모으지 않고 한 건씩 JsonGenerator로
+ * {"columns":["memberId",...],"content":[[1,"member1",10,1,"teamA"],...],"page":0,"size":20,"totalElements":4,"totalPages":1}
+ * PageImpl의 pageable/sort 메타데이터와 행마다 반복되는 속성 이름이 빠진다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberPageWriter {
+
+    static final String[] COLUMNS = {"memberId", "username", "age", "teamId", "teamName"};
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    public void write(OutputStream out, MemberSearchCondition condition, Pageable pageable) throws IOException {
+        //중간에 실패하면 닫히지 않은 JSON으로 끝나게 - 자동으로 닫으면 잘린 결과가 정상 응답처럼 보인다
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("columns");
+            for (String column : COLUMNS) generator.writeString(column);
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("content");
+            long total = memberRepository.searchPageRows(condition, pageable, (memberId, username, age, teamId, teamName) -> {
+                try {
+                    generator.writeStartArray();
+                    writeNumber(generator, memberId);
+                    generator.writeString(username);
+                    generator.writeNumber(age);
+                    writeNumber(generator, teamId);
+                    generator.writeString(teamName);
+                    generator.writeEndArray();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+
+            generator.writeNumberField("page", pageable.getPageNumber());
+            generator.writeNumberField("size", pageable.getPageSize());
+            generator.writeNumberField("totalElements", total);
+            generator.writeNumberField("totalPages", (total + pageable.getPageSize() - 1) / pageable.getPageSize());
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) generator.writeNull();
+        else generator.writeNumber(value);
+    }
+}
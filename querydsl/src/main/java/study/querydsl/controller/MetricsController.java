@@ -0,0 +1,59 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.CacheStatsDto;
+import study.querydsl.dto.RepositoryMethodStatsDto;
+import study.querydsl.dto.UsernameIndexStatsDto;
+import study.querydsl.metrics.RepositoryMetrics;
+import study.querydsl.repository.MemberCountCache;
+import study.querydsl.repository.MemberSearchCache;
+import study.querydsl.repository.MemberUsernameIndex;
+import study.querydsl.repository.TeamStatsCache;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final MemberCountCache memberCountCache;
+    private final MemberSearchCache memberSearchCache;
+    private final RepositoryMetrics repositoryMetrics;
+    private final MemberUsernameIndex memberUsernameIndex;
+    private final TeamStatsCache teamStatsCache;
+
+    @GetMapping("/metrics/count-cache")
+    public CacheStatsDto countCacheStats() {
+        return memberCountCache.stats();
+    }
+
+    @GetMapping("/metrics/search-cache")
+    public CacheStatsDto searchCacheStats() {
+        return memberSearchCache.stats();
+    }
+
+    @GetMapping("/metrics/team-stats-cache")
+    public CacheStatsDto teamStatsCacheStats() {
+        return teamStatsCache.stats();
+    }
+
+    /** username 인덱스 메모리 추정치, 조회 지연시간 */
+    @GetMapping("/metrics/username-index")
+    public UsernameIndexStatsDto usernameIndexStats() {
+        return memberUsernameIndex.stats();
+    }
+
+    /** 리포지토리 메소드 x 검색 조건 조합별 지연시간(p50/p99/p999), row 수, SQL 수 */
+    @GetMapping("/metrics/repository")
+    public List<RepositoryMethodStatsDto> repositoryStats() {
+        return repositoryMetrics.snapshot();
+    }
+
+    @DeleteMapping("/metrics/repository")
+    public void resetRepositoryStats() {
+        repositoryMetrics.reset();
+    }
+}
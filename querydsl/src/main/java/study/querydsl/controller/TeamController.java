@@ -0,0 +1,23 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamStatsCache;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsCache teamStatsCache;
+
+    /** 팀별 회원 수, 나이 평균/최대/최소 - ageGoe, ageLoe로 걸러서 */
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> teamStats(MemberSearchCondition condition) {
+        return teamStatsCache.get(condition);
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/** 청크 단위 벌크 연산 진행 상황 - 청크 하나(member_id 구간)가 커밋될 때마다 */
+@Getter
+@ToString
+public class BulkProgress {
+    private final long chunk;          //1부터
+    private final long totalChunks;
+    private final long fromId;
+    private final long toId;
+    private final long affected;       //이번 청크에서 바뀐 row 수
+    private final long totalAffected;  //지금까지 바뀐 row 수
+
+    public BulkProgress(long chunk, long totalChunks, long fromId, long toId, long affected, long totalAffected) {
+        this.chunk = chunk;
+        this.totalChunks = totalChunks;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.affected = affected;
+        this.totalAffected = totalAffected;
+    }
+}
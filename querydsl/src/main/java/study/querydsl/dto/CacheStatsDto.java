@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+@Getter
+public class CacheStatsDto {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long size;
+    private final double hitRatio;
+
+    public CacheStatsDto(long hits, long misses, long evictions, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        long requests = hits + misses;
+        this.hitRatio = requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,8 @@
+package study.querydsl.dto;
+
+/** 페이징 시 전체 개수를 어떻게 구할지 */
+public enum CountMode {
+    EXACT,      //count(*) 그대로
+    CAPPED,     //cap 건까지만 세고 넘으면 '최소 cap건'
+    ESTIMATED   //조건이 없으면 테이블 통계의 추정치, 조건이 있거나 통계가 없으면 CAPPED로 센다
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 클라이언트가 보낸 검색 파라미터가 잘못됨 (커서, 필드 이름, 검색어 등) -> 400
+ * IllegalArgumentException이 아니므로 리포지토리 프록시가 InvalidDataAccessApiUsageException(500)으로 바꾸지 않는다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchRequestException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * totalExact가 false면 totalElements는 '최소 N건'(CAPPED) 또는 추정치(ESTIMATED)
+ * countMode는 요청한 값이 아니라 실제로 전체 개수를 구한 방법 - 마지막 페이지라 세지 않고 알았으면 EXACT
+ */
+@Getter
+public class MemberCountedPage {
+    private final List<MemberTeamDto> content;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final boolean totalExact;
+    private final CountMode countMode;
+
+    public MemberCountedPage(List<MemberTeamDto> content, int page, int size,
+                             long totalElements, boolean totalExact, CountMode countMode) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalExact = totalExact;
+        this.countMode = countMode;
+    }
+}
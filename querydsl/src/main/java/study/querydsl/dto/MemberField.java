@@ -0,0 +1,50 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/** 검색 결과에서 골라 받을 수 있는 속성 (?fields=memberId,username) - MemberTeamDto의 속성 이름과 같다 */
+public enum MemberField {
+
+    MEMBER_ID("memberId"),
+    USERNAME("username"),
+    AGE("age"),
+    TEAM_ID("teamId"),
+    TEAM_NAME("teamName");
+
+    private final String property;
+
+    MemberField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /** 쉼표로 구분한 속성 이름 - 요청한 순서대로, 비어 있으면 전체, 목록에 없는 이름은 400 */
+    public static Set<MemberField> parse(String fields) {
+        if (!hasText(fields)) return EnumSet.allOf(MemberField.class);
+
+        Set<MemberField> result = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            if (!hasText(name)) continue;
+            String trimmed = name.trim();
+            result.add(ofProperty(trimmed)
+                    .orElseThrow(() -> new InvalidSearchRequestException("지원하지 않는 필드입니다: " + trimmed)));
+        }
+        return result.isEmpty() ? EnumSet.allOf(MemberField.class) : result;
+    }
+
+    /** 속성 이름으로 찾기 - Pageable 정렬도 같은 이름을 쓴다 */
+    public static Optional<MemberField> ofProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/** 리포지토리 메소드 x 검색 조건 조합별 통계 (지연시간은 마이크로초) */
+@Getter
+public class RepositoryMethodStatsDto {
+    private final String method;
+    private final String filterShape;
+    private final long calls;
+    private final long errors;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long totalRows;
+    private final long totalStatements;
+    private final double avgRows;
+    private final double avgStatements;
+
+    public RepositoryMethodStatsDto(String method, String filterShape, long calls, long errors,
+                                    long p50Micros, long p99Micros, long p999Micros,
+                                    long totalRows, long totalStatements) {
+        this.method = method;
+        this.filterShape = filterShape;
+        this.calls = calls;
+        this.errors = errors;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.totalRows = totalRows;
+        this.totalStatements = totalStatements;
+        this.avgRows = (double) totalRows / calls;
+        this.avgStatements = (double) totalStatements / calls;
+    }
+}
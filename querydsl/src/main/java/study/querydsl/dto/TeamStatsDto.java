@@ -0,0 +1,23 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+/** 팀별 회원 수, 나이 평균/최대/최소 */
+@Data
+public class TeamStatsDto {
+    private String teamName;
+    private long memberCount;
+    private double avgAge;
+    private int maxAge;
+    private int minAge;
+
+    @QueryProjection
+    public TeamStatsDto(String teamName, Long memberCount, Double avgAge, Integer maxAge, Integer minAge) {
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.avgAge = avgAge;
+        this.maxAge = maxAge;
+        this.minAge = minAge;
+    }
+}
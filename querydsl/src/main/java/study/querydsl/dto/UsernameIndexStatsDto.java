@@ -0,0 +1,30 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/** username 인덱스 크기(대략적인 바이트 추정치)와 조회 지연시간 (마이크로초) */
+@Getter
+public class UsernameIndexStatsDto {
+    private final long members;
+    private final long distinctUsernames;
+    private final long grams;
+    private final long postings;
+    private final long estimatedBytes;
+    private final long buildMillis;
+    private final long lookups;
+    private final long p50Micros;
+    private final long p99Micros;
+
+    public UsernameIndexStatsDto(long members, long distinctUsernames, long grams, long postings, long estimatedBytes,
+                                 long buildMillis, long lookups, long p50Micros, long p99Micros) {
+        this.members = members;
+        this.distinctUsernames = distinctUsernames;
+        this.grams = grams;
+        this.postings = postings;
+        this.estimatedBytes = estimatedBytes;
+        this.buildMillis = buildMillis;
+        this.lookups = lookups;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+    }
+}
@@ -0,0 +1,7 @@
+package study.querydsl.dto;
+
+/** username 부분 검색 방식 (대소문자 구분 없음) */
+public enum UsernameMatch {
+    PREFIX,     //keyword로 시작
+    CONTAINS    //keyword를 포함
+}
@@ -5,12 +5,20 @@ import lombok.*;
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),    //팀 + 나이 범위
+        @Index(name = "idx_member_age", columnList = "age")                   //팀 조건 없는 나이 범위
+})
+@EntityListeners(MemberEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})   //team은 무한루프로 인해 제외
 public class Member {
 
-    @Id @GeneratedValue
+    //pooled 시퀀스 - allocationSize 만큼 한 번에 받아와서 대량 insert 시 시퀀스 호출을 줄인다
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 1000)
     @Column(name = "member_id")
     private Long id;
 
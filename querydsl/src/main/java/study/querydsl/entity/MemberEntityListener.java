@@ -0,0 +1,33 @@
+package study.querydsl.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import study.querydsl.event.BulkLoad;
+import study.querydsl.event.MemberChangedEvent;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 회원 변경을 스프링 이벤트로 알려준다 (하이버네이트가 스프링 빈으로 생성)
+ * - 대량 적재 중(BulkLoad)에는 row마다 발행하지 않는다 - 적재하는 쪽이 청크마다 BULK 이벤트를 발행
+ */
+@RequiredArgsConstructor
+public class MemberEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Member member) {
+        if (BulkLoad.isActive()) return;
+        eventPublisher.publishEvent(MemberChangedEvent.saved(member));
+    }
+
+    @PostRemove
+    public void onRemove(Member member) {
+        if (BulkLoad.isActive()) return;
+        eventPublisher.publishEvent(MemberChangedEvent.deleted(member));
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 검색 전용 읽기 모델 - member와 team.name을 한 테이블에 펼쳐 둔다 (조인 없이 검색)
+ * MemberSearchProjection이 회원/팀 변경 이벤트를 받아 같은 트랜잭션에서 맞추므로 JPA로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "member_search", indexes = {
+        @Index(name = "idx_member_search_username", columnList = "username"),
+        @Index(name = "idx_member_search_team_age", columnList = "team_name, age"),
+        @Index(name = "idx_member_search_age", columnList = "age")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberSearch {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String username;
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "team_name")
+    private String teamName;
+}
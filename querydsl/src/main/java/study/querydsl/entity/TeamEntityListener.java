@@ -0,0 +1,27 @@
+package study.querydsl.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import study.querydsl.event.TeamChangedEvent;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/** 팀 변경을 스프링 이벤트로 알려준다 (하이버네이트가 스프링 빈으로 생성) */
+@RequiredArgsConstructor
+public class TeamEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Team team) {
+        eventPublisher.publishEvent(TeamChangedEvent.saved(team));
+    }
+
+    @PostRemove
+    public void onRemove(Team team) {
+        eventPublisher.publishEvent(TeamChangedEvent.deleted(team));
+    }
+}
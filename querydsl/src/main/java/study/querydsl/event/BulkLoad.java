@@ -0,0 +1,31 @@
+package study.querydsl.event;
+
+import java.util.function.Supplier;
+
+/**
+ * 대량 적재 구간 (시더, CSV 가져오기)
+ * - 이 안에서 저장한 회원은 MemberEntityListener가 row마다 이벤트를 발행하지 않는다
+ * - 적재하는 쪽이 청크를 flush 한 뒤 MemberChangedEvent.bulk(fromId, toId)를 한 번 발행해서 파생 데이터를 구간 단위로 맞춘다
+ */
+public final class BulkLoad {
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> false);
+
+    private BulkLoad() {
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get();
+    }
+
+    /** PostPersist는 flush 때 불리므로 flush까지 이 안에서 해야 한다 */
+    public static <T> T call(Supplier<T> action) {
+        boolean previous = ACTIVE.get();
+        ACTIVE.set(true);
+        try {
+            return action.get();
+        } finally {
+            ACTIVE.set(previous);
+        }
+    }
+}
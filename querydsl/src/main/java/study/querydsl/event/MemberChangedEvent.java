@@ -0,0 +1,50 @@
+package study.querydsl.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.querydsl.entity.Member;
+
+/**
+ * 회원이 저장/수정/삭제 되었을 때 발행되는 이벤트 - 캐시 무효화 등에 사용
+ * BULK는 벌크 연산처럼 어떤 회원이 바뀌었는지 알 수 없는 경우 (memberId 등이 null)
+ * - fromId, toId가 있으면 그 member_id 구간 안에서만 바뀌었다
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberChangedEvent {
+
+    public enum Type { SAVED, DELETED, BULK }
+
+    private final Type type;
+    private final Long memberId;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final Long fromId;
+    private final Long toId;
+
+    public static MemberChangedEvent saved(Member member) {
+        return of(Type.SAVED, member);
+    }
+
+    public static MemberChangedEvent deleted(Member member) {
+        return of(Type.DELETED, member);
+    }
+
+    public static MemberChangedEvent bulk() {
+        return bulk(null, null);
+    }
+
+    public static MemberChangedEvent bulk(Long fromId, Long toId) {
+        return new MemberChangedEvent(Type.BULK, null, null, 0, null, fromId, toId);
+    }
+
+    private static MemberChangedEvent of(Type type, Member member) {
+        //team은 LAZY 프록시일 수 있지만 id 조회는 초기화를 일으키지 않는다
+        Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+        return new MemberChangedEvent(type, member.getId(), member.getUsername(), member.getAge(), teamId, null, null);
+    }
+}
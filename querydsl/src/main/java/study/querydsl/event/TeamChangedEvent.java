@@ -0,0 +1,28 @@
+package study.querydsl.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.querydsl.entity.Team;
+
+/** 팀이 저장/수정(이름 변경)/삭제 되었을 때 발행되는 이벤트 - 팀 이름을 복사해 둔 곳을 맞춘다 */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class TeamChangedEvent {
+
+    public enum Type { SAVED, DELETED }
+
+    private final Type type;
+    private final Long teamId;
+    private final String name;
+
+    public static TeamChangedEvent saved(Team team) {
+        return new TeamChangedEvent(Type.SAVED, team.getId(), team.getName());
+    }
+
+    public static TeamChangedEvent deleted(Team team) {
+        return new TeamChangedEvent(Type.DELETED, team.getId(), team.getName());
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.importer;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@ToString
+public class CsvImportReport {
+    private final long rowsRead;
+    private final long imported;
+    private final long rejected;
+    private final int teamsCreated;
+    private final Duration elapsed;
+    private final double rowsPerSecond;
+    /** 거부된 줄 - 앞에서부터 일부만 */
+    private final List<RejectedRow> rejectedRows;
+
+    public CsvImportReport(long rowsRead, long imported, long rejected, int teamsCreated,
+                           Duration elapsed, List<RejectedRow> rejectedRows) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.teamsCreated = teamsCreated;
+        this.elapsed = elapsed;
+        long millis = Math.max(1, elapsed.toMillis());
+        this.rowsPerSecond = imported * 1000.0 / millis;
+        this.rejectedRows = rejectedRows;
+    }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.importer;
+
+/**
+ * 가져오기 요청 파라미터가 잘못됨 (commitInterval 범위 등) -> 400
+ * 잘못된 CSV 줄은 예외가 아니라 리포트의 거부된 줄로 남는다.
+ */
+public class InvalidImportRequestException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidImportRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,254 @@
+package study.querydsl.importer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkLoad;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.metrics.StatementGuard;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원 CSV(username,age,teamName) 가져오기
+ * - 요청 본문을 한 줄씩 읽고 commitInterval 건씩 모아서 트랜잭션 하나로 넣는다 (메모리는 청크 크기만큼만)
+ * - 팀 이름 -> id 는 시작할 때 한 번 읽어서 메모리에 두고, 없는 팀은 만든다
+ * - batchSize 마다 flush/clear - hibernate.jdbc.batch_size와 맞춘다
+ * - row마다 회원 이벤트를 내지 않고 청크마다 BULK(id 구간) 이벤트 한 번
+ * - 청크 트랜잭션은 트랜잭션당 SQL 한도(StatementGuard)에서 뺀다
+ */
+@Slf4j
+@Component
+public class MemberCsvImporter {
+
+    /** 리포트에 담는 거부된 줄 수 */
+    static final int MAX_REJECTED_ROWS = 100;
+    /** Member.username, Team.name 컬럼 길이(기본 255) - 넘으면 청크 전체가 실패하므로 줄 단위로 거부 */
+    private static final int MAX_USERNAME_LENGTH = 255;
+    private static final int MAX_TEAM_NAME_LENGTH = 255;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatementGuard statementGuard;
+    private final int batchSize;
+    private final int defaultCommitInterval;
+    private final int maxCommitInterval;
+
+    public MemberCsvImporter(PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             StatementGuard statementGuard,
+                             @Value("${member.import.batch-size:1000}") int batchSize,
+                             @Value("${member.import.commit-interval:10000}") int defaultCommitInterval,
+                             @Value("${member.import.max-commit-interval:100000}") int maxCommitInterval) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.statementGuard = statementGuard;
+        this.batchSize = batchSize;
+        this.defaultCommitInterval = defaultCommitInterval;
+        this.maxCommitInterval = maxCommitInterval;
+    }
+
+    public CsvImportReport importCsv(InputStream in) throws IOException {
+        return importCsv(in, defaultCommitInterval);
+    }
+
+    public CsvImportReport importCsv(InputStream in, int commitInterval) throws IOException {
+        //한 트랜잭션이 잡고 있는 락, undo 로그가 요청 파라미터 하나로 무한정 커지지 않게
+        if (commitInterval < 1 || commitInterval > maxCommitInterval)
+            throw new InvalidImportRequestException("commitInterval은 1 ~ " + maxCommitInterval + " 이어야 합니다: " + commitInterval);
+        long start = System.nanoTime();
+
+        Map<String, Long> teamIds = loadTeamIds();
+        int teamsBefore = teamIds.size();
+        List<RejectedRow> rejectedRows = new ArrayList<>();
+        long rowsRead = 0, imported = 0, rejected = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<MemberRow> chunk = new ArrayList<>(Math.min(commitInterval, 10_000));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && isHeader(line))) continue;
+            rowsRead++;
+
+            MemberRow row;
+            try {
+                row = MemberRow.parse(line);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                if (rejectedRows.size() < MAX_REJECTED_ROWS)
+                    rejectedRows.add(new RejectedRow(lineNumber, e.getMessage(), abbreviate(line)));
+                continue;
+            }
+
+            chunk.add(row);
+            if (chunk.size() == commitInterval) {
+                imported += persistChunk(chunk, teamIds);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) imported += persistChunk(chunk, teamIds);
+
+        CsvImportReport report = new CsvImportReport(rowsRead, imported, rejected, teamIds.size() - teamsBefore,
+                Duration.ofNanos(System.nanoTime() - start), rejectedRows);
+        log.info("csv import 완료 rows={}, imported={}, rejected={}, teamsCreated={}, elapsed={}ms, {} rows/sec",
+                report.getRowsRead(), report.getImported(), report.getRejected(), report.getTeamsCreated(),
+                report.getElapsed().toMillis(), String.format("%.0f", report.getRowsPerSecond()));
+        return report;
+    }
+
+    private Map<String, Long> loadTeamIds() {
+        Map<String, Long> teamIds = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> em
+                .createQuery("select t.id, t.name from Team t", Object[].class)
+                .getResultStream()
+                .forEach(row -> teamIds.putIfAbsent((String) row[1], (Long) row[0])));
+        return teamIds;
+    }
+
+    /** 청크 하나를 트랜잭션 하나로 - 실패하면 이 청크에서 만든 팀은 캐시에서도 뺀다 */
+    private long persistChunk(List<MemberRow> chunk, Map<String, Long> teamIds) {
+        Map<String, Long> createdTeams = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                statementGuard.skipTransactionBudget();
+                long[] ids = BulkLoad.call(() -> persistRows(chunk, teamIds, createdTeams));
+                eventPublisher.publishEvent(MemberChangedEvent.bulk(ids[0], ids[1]));
+            });
+        } catch (RuntimeException e) {
+            createdTeams.keySet().forEach(teamIds::remove);
+            throw e;
+        }
+        return chunk.size();
+    }
+
+    /** 넣은 회원의 {최소 id, 최대 id} - 청크는 비어 있지 않다 */
+    private long[] persistRows(List<MemberRow> chunk, Map<String, Long> teamIds, Map<String, Long> createdTeams) {
+        long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+        int pending = 0;
+        for (MemberRow row : chunk) {
+            Member member = new Member(row.username, row.age);
+            if (row.teamName != null) {
+                //생성자로 팀을 넣으면 team.members 컬렉션이 로딩되므로 연관관계 주인 쪽만 세팅
+                member.setTeam(em.getReference(Team.class, teamId(row.teamName, teamIds, createdTeams)));
+            }
+            em.persist(member);
+            minId = Math.min(minId, member.getId());
+            maxId = Math.max(maxId, member.getId());
+
+            if (++pending == batchSize) {
+                em.flush();
+                em.clear();
+                pending = 0;
+            }
+        }
+        em.flush();
+        em.clear();
+        return new long[]{minId, maxId};
+    }
+
+    private Long teamId(String teamName, Map<String, Long> teamIds, Map<String, Long> createdTeams) {
+        Long id = teamIds.get(teamName);
+        if (id != null) return id;
+
+        Team team = new Team(teamName);
+        em.persist(team);
+        teamIds.put(teamName, team.getId());
+        createdTeams.put(teamName, team.getId());
+        return team.getId();
+    }
+
+    private boolean isHeader(String line) {
+        return line.trim().toLowerCase().startsWith("username");
+    }
+
+    private String abbreviate(String line) {
+        return line.length() <= 200 ? line : line.substring(0, 200) + "...";
+    }
+
+    /** CSV 한 줄 - 검증까지 끝난 값 */
+    static class MemberRow {
+        private final String username;
+        private final int age;
+        private final String teamName;
+
+        private MemberRow(String username, int age, String teamName) {
+            this.username = username;
+            this.age = age;
+            this.teamName = teamName;
+        }
+
+        static MemberRow parse(String line) {
+            List<String> fields = splitLine(line);
+            if (fields.size() < 2 || fields.size() > 3)
+                throw new IllegalArgumentException("컬럼 수가 맞지 않습니다 (username,age,teamName): " + fields.size());
+
+            String username = fields.get(0);
+            if (username.isEmpty()) throw new IllegalArgumentException("username이 비어 있습니다.");
+            if (username.length() > MAX_USERNAME_LENGTH) throw new IllegalArgumentException("username이 너무 깁니다.");
+
+            int age;
+            try {
+                age = Integer.parseInt(fields.get(1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("age가 숫자가 아닙니다: " + fields.get(1));
+            }
+            if (age < 0) throw new IllegalArgumentException("age는 0 이상이어야 합니다: " + age);
+
+            String teamName = fields.size() == 3 && !fields.get(2).isEmpty() ? fields.get(2) : null;
+            if (teamName != null && teamName.length() > MAX_TEAM_NAME_LENGTH)
+                throw new IllegalArgumentException("teamName이 너무 깁니다.");
+            return new MemberRow(username, age, teamName);
+        }
+
+        /** 쉼표 구분, 큰따옴표로 감싼 값("a,b", "" 는 따옴표 하나) 지원 - 줄바꿈이 들어간 값은 지원하지 않는다 */
+        static List<String> splitLine(String line) {
+            List<String> fields = new ArrayList<>(3);
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString().trim());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) throw new IllegalArgumentException("따옴표가 닫히지 않았습니다.");
+            fields.add(current.toString().trim());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.importer;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class RejectedRow {
+    private final long line;
+    private final String reason;
+    private final String content;
+
+    public RejectedRow(long line, String reason, String content) {
+        this.line = line;
+        this.reason = reason;
+        this.content = content;
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.metrics;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.RepositoryMethodStatsDto;
+import study.querydsl.repository.MemberSearchTemplates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 리포지토리 메소드 x 검색 조건 조합(어떤 조건이 채워졌는지)별 지연시간, 반환 row 수, SQL 수
+ * 조건 조합은 MemberSearchTemplates.shapeOf 기준 16가지 + 검색 조건이 없는 메소드
+ */
+@Component
+public class RepositoryMetrics {
+
+    /** MemberSearchCondition 인자가 없는 메소드 (findAll 등) */
+    public static final int NO_CONDITION = MemberSearchTemplates.SHAPES;
+
+    private final Map<String, Stats[]> statsByMethod = new ConcurrentHashMap<>();
+
+    public void record(String method, int shape, long nanos, long rows, long statements, boolean failed) {
+        Stats[] byShape = statsByMethod.computeIfAbsent(method, m -> newStats());
+        byShape[shape].record(nanos, rows, statements, failed);
+    }
+
+    public List<RepositoryMethodStatsDto> snapshot() {
+        List<RepositoryMethodStatsDto> result = new ArrayList<>();
+        statsByMethod.forEach((method, byShape) -> {
+            for (int shape = 0; shape < byShape.length; shape++) {
+                Stats stats = byShape[shape];
+                long calls = stats.calls.sum();
+                if (calls == 0) continue;
+                result.add(new RepositoryMethodStatsDto(method, shapeName(shape), calls, stats.errors.sum(),
+                        stats.latency.percentile(0.5) / 1000,
+                        stats.latency.percentile(0.99) / 1000,
+                        stats.latency.percentile(0.999) / 1000,
+                        stats.rows.sum(), stats.statements.sum()));
+            }
+        });
+        result.sort((a, b) -> a.getMethod().equals(b.getMethod())
+                ? a.getFilterShape().compareTo(b.getFilterShape())
+                : a.getMethod().compareTo(b.getMethod()));
+        return result;
+    }
+
+    public void reset() {
+        statsByMethod.clear();
+    }
+
+    /** ex) "username+teamName", 조건이 하나도 없으면 "none" */
+    static String shapeName(int shape) {
+        if (shape == NO_CONDITION) return "-";
+        if (shape == 0) return "none";
+        List<String> names = new ArrayList<>();
+        if ((shape & MemberSearchTemplates.USERNAME) != 0) names.add("username");
+        if ((shape & MemberSearchTemplates.TEAM_NAME) != 0) names.add("teamName");
+        if ((shape & MemberSearchTemplates.AGE_GOE) != 0) names.add("ageGoe");
+        if ((shape & MemberSearchTemplates.AGE_LOE) != 0) names.add("ageLoe");
+        return String.join("+", names);
+    }
+
+    private static Stats[] newStats() {
+        Stats[] stats = new Stats[NO_CONDITION + 1];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
+        return stats;
+    }
+
+    private static class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+
+        private void record(long nanos, long rows, long statements, boolean failed) {
+            latency.record(nanos);
+            calls.increment();
+            if (failed) errors.increment();
+            this.rows.add(rows);
+            this.statements.add(statements);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package study.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberCountedPage;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberRowHandler;
+import study.querydsl.repository.MemberSearchTemplates;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * MemberJpaRepository, MemberRepositoryImpl의 public 메소드 호출마다 지연시간/row 수/SQL 수를 RepositoryMetrics에 기록
+ * SQL 수는 호출한 스레드 기준이라 다른 스레드에서 돈 쿼리(searchPageConcurrent의 count)는 포함되지 않는다.
+ * row 수는 돌려준 결과의 건수 - 콜백으로 넘기는 메소드(searchStream, searchPageRows)는 콜백 호출 수로 센다.
+ * long을 돌려주는 메소드(전체 개수, 벌크 연산 건수)의 반환값은 row 수가 아니므로 세지 않는다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final RepositoryMetrics metrics;
+
+    @Around("execution(public * study.querydsl.repository.MemberJpaRepository.*(..))" +
+            " || execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))" +
+            " || execution(public * study.querydsl.repository.MemberSearchQueryRepository.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        long statementsBefore = SqlStatementCounter.current();
+        long start = System.nanoTime();
+        Object[] args = joinPoint.getArgs();
+        long[] streamed = countCallbacks(args);
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = joinPoint.proceed(args);
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(joinPoint.getSignature().getName(), shapeOf(args), elapsed,
+                    streamed != null ? streamed[0] : rowsOf(result), SqlStatementCounter.current() - statementsBefore, failed);
+        }
+    }
+
+    /** row 콜백 인자를 호출 수를 세는 콜백으로 감싼다 - 콜백이 없으면 null */
+    @SuppressWarnings("unchecked")
+    private long[] countCallbacks(Object[] args) {
+        long[] count = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof MemberRowHandler) {
+                MemberRowHandler handler = (MemberRowHandler) args[i];
+                long[] rows = count = new long[1];
+                args[i] = (MemberRowHandler) (memberId, username, age, teamId, teamName) -> {
+                    rows[0]++;
+                    handler.onRow(memberId, username, age, teamId, teamName);
+                };
+            } else if (args[i] instanceof Consumer) {
+                Consumer<Object> action = (Consumer<Object>) args[i];
+                long[] rows = count = new long[1];
+                args[i] = (Consumer<Object>) row -> {
+                    rows[0]++;
+                    action.accept(row);
+                };
+            }
+        }
+        return count;
+    }
+
+    private int shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition) return MemberSearchTemplates.shapeOf((MemberSearchCondition) arg);
+        }
+        return RepositoryMetrics.NO_CONDITION;
+    }
+
+    private long rowsOf(Object result) {
+        if (result instanceof Collection) return ((Collection<?>) result).size();
+        if (result instanceof Slice) return ((Slice<?>) result).getNumberOfElements();
+        if (result instanceof MemberCursorPage) return ((MemberCursorPage) result).getContent().size();
+        if (result instanceof MemberCountedPage) return ((MemberCountedPage) result).getContent().size();
+        if (result instanceof Optional) return ((Optional<?>) result).isPresent() ? 1 : 0;
+        return 0;
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 하이버네이트가 실행하는 SQL 개수를 스레드별로 센다 (HibernateConfig에서 등록)
+ * 읽기만 하고 SQL은 바꾸지 않는다. StatementGuard가 있으면 SQL마다 한도를 확인한다.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    private final transient StatementGuard statementGuard; //세션 팩토리 직렬화 시 가드는 빠진다
+
+    public SqlStatementCounter() {
+        this(null);
+    }
+
+    public SqlStatementCounter(StatementGuard statementGuard) {
+        this.statementGuard = statementGuard;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        List<String> captured = CAPTURED.get();
+        if (captured != null) captured.add(sql);
+        if (statementGuard != null) statementGuard.onStatement();
+        return sql;
+    }
+
+    /** 현재 스레드에서 지금까지 실행한 SQL 수 - 구간 측정은 전후 값의 차이로 */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    /** action을 실행하는 동안 현재 스레드에서 실행된 SQL (실행 계획 확인 등) */
+    public static List<String> capture(Runnable action) {
+        List<String> previous = CAPTURED.get();
+        List<String> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) CAPTURED.remove();
+            else CAPTURED.set(previous);
+        }
+        return captured;
+    }
+}
@@ -0,0 +1,143 @@
+package study.querydsl.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * HTTP 요청 하나, 트랜잭션 하나에서 실행되는 SQL 수를 제한한다 (N+1 감지)
+ * SqlStatementCounter가 SQL마다 onStatement를 호출하고, 한도를 넘는 순간
+ * mode=log 면 한 번 경고 로그, mode=fail 이면 그 SQL을 실행하지 못하게 예외를 던진다.
+ */
+@Slf4j
+@Component
+public class StatementGuard {
+
+    public enum Mode { OFF, LOG, FAIL }
+
+    private static final Object TRANSACTION_BUDGET_KEY = new Object();
+
+    private final Mode mode;
+    private final int maxPerRequest;
+    private final int maxPerTransaction;
+    private final ThreadLocal<Budget> requestBudget = new ThreadLocal<>();
+
+    public StatementGuard(@Value("${member.statement-guard.mode:log}") Mode mode,
+                          @Value("${member.statement-guard.max-per-request:50}") int maxPerRequest,
+                          @Value("${member.statement-guard.max-per-transaction:50}") int maxPerTransaction) {
+        this.mode = mode;
+        this.maxPerRequest = maxPerRequest;
+        this.maxPerTransaction = maxPerTransaction;
+    }
+
+    /** StatementGuardFilter에서 요청 시작 시 호출 */
+    public void beginRequest(String description) {
+        if (mode == Mode.OFF) return;
+        requestBudget.set(new Budget("request " + description, SqlStatementCounter.current(), maxPerRequest));
+    }
+
+    /** 요청에서 실행한 SQL 수 */
+    public long endRequest() {
+        Budget budget = requestBudget.get();
+        requestBudget.remove();
+        return budget == null ? 0 : budget.used();
+    }
+
+    /** 대량 가져오기처럼 SQL이 많은 게 정상인 요청은 요청 한도에서 뺀다 (트랜잭션 한도는 그대로) */
+    public void skipRequestBudget() {
+        requestBudget.remove();
+    }
+
+    /**
+     * 시드, CSV 가져오기 청크, 벌크 연산 구간처럼 SQL이 많은 게 정상인 트랜잭션은 트랜잭션 한도에서 뺀다 (요청 한도는 그대로)
+     * 바깥 트랜잭션에 참여하고 있으면 그 트랜잭션 전체가 빠진다.
+     */
+    public void skipTransactionBudget() {
+        if (mode == Mode.OFF) return;
+        Budget budget = transactionBudget();
+        if (budget != null) budget.skipped = true;
+    }
+
+    /** SQL 한 건이 실행되기 직전 (SqlStatementCounter가 이미 센 뒤) */
+    void onStatement() {
+        if (mode == Mode.OFF) return;
+
+        Budget request = requestBudget.get();
+        if (request != null) check(request);
+
+        Budget transaction = transactionBudget();
+        if (transaction != null) check(transaction);
+    }
+
+    /**
+     * 트랜잭션마다 첫 SQL이 나올 때 예산을 만들고, 트랜잭션이 끝나면 지운다.
+     * REQUIRES_NEW 등으로 보류(suspend)되면 풀어 두었다가 재개(resume)될 때 다시 건다 - 안쪽 트랜잭션은 자기 예산을 쓰고,
+     * 보류된 동안 실행된 SQL은 바깥 트랜잭션 사용량에서 뺀다.
+     */
+    private Budget transactionBudget() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+
+        Budget budget = (Budget) TransactionSynchronizationManager.getResource(TRANSACTION_BUDGET_KEY);
+        if (budget == null) {
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            Budget created = new Budget("transaction " + name, SqlStatementCounter.current() - 1, maxPerTransaction);
+            TransactionSynchronizationManager.bindResource(TRANSACTION_BUDGET_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long suspendedAt;
+
+                @Override
+                public void suspend() {
+                    suspendedAt = SqlStatementCounter.current();
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_BUDGET_KEY);
+                }
+
+                @Override
+                public void resume() {
+                    created.excluded += SqlStatementCounter.current() - suspendedAt;
+                    TransactionSynchronizationManager.bindResource(TRANSACTION_BUDGET_KEY, created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_BUDGET_KEY);
+                }
+            });
+            budget = created;
+        }
+        return budget;
+    }
+
+    private void check(Budget budget) {
+        if (budget.skipped) return;
+        long used = budget.used();
+        if (used <= budget.limit) return;
+
+        String message = String.format("%s: SQL %d건 실행 (한도 %d) - N+1 여부를 확인하세요.", budget.name, used, budget.limit);
+        if (mode == Mode.FAIL) throw new StatementLimitExceededException(message);
+        if (!budget.warned) {
+            budget.warned = true;
+            log.warn(message);
+        }
+    }
+
+    private static class Budget {
+        private final String name;
+        private final long start;
+        private final int limit;
+        private long excluded;
+        private boolean warned;
+        private boolean skipped;
+
+        private Budget(String name, long start, int limit) {
+            this.name = name;
+            this.start = start;
+            this.limit = limit;
+        }
+
+        private long used() {
+            return SqlStatementCounter.current() - start - excluded;
+        }
+    }
+}
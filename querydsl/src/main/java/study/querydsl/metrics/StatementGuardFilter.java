@@ -0,0 +1,33 @@
+package study.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/** 요청 단위 SQL 수 측정 - 응답 직렬화 중 지연 로딩(open-in-view)까지 포함 */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatementGuardFilter extends OncePerRequestFilter {
+
+    private final StatementGuard statementGuard;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        statementGuard.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long statements = statementGuard.endRequest();
+            log.debug("{} {} - SQL {}건", request.getMethod(), request.getRequestURI(), statements);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.metrics;
+
+/** StatementGuard 한도를 넘는 SQL을 실행하려고 할 때 (mode=fail) */
+public class StatementLimitExceededException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StatementLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.BulkProgress;
+
+/** 벌크 연산 청크가 끝날 때마다 호출 */
+@FunctionalInterface
+public interface BulkProgressListener {
+
+    BulkProgressListener NONE = progress -> { };
+
+    void onChunk(BulkProgress progress);
+}
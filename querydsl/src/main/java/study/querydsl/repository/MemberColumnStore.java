@@ -0,0 +1,389 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberField;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원을 컬럼별 기본형 배열로 들고 있는 메모리 검색 엔진
+ * - row마다 id(long), age(int), 팀 코드(int), username 코드(int) - 팀과 username은 사전(dictionary)으로 인코딩
+ * - 팀 코드마다 row BitSet, username 코드마다 row 목록, age 순으로 정렬한 row 목록
+ * - 조건마다 BitSet을 만들어 AND 하면 결과 row, cardinality가 전체 개수
+ * 수정은 기존 row를 지우고(live 비트 해제) 뒤에 붙인다. 정렬되지 않은 꼬리가 길어지면 compact로 다시 정렬한다.
+ */
+class MemberColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_TEAM = -1;
+    private static final int MIN_COMPACT_ROWS = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //row 컬럼
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] ages = new int[INITIAL_CAPACITY];
+    private int[] teamCodes = new int[INITIAL_CAPACITY];
+    private int[] usernameCodes = new int[INITIAL_CAPACITY];
+    private int rows;
+    private BitSet live = new BitSet();
+    private Map<Long, Integer> rowById = new HashMap<>();
+
+    //사전
+    private final List<Long> teamIds = new ArrayList<>();
+    private final List<String> teamNames = new ArrayList<>();
+    private final Map<Long, Integer> teamCodeById = new HashMap<>();
+    private final Map<String, List<Integer>> teamCodesByName = new HashMap<>();
+    private final List<String> usernames = new ArrayList<>();
+    private final Map<String, Integer> usernameCodeByName = new HashMap<>();
+
+    //인덱스
+    private List<BitSet> rowsByTeam = new ArrayList<>();
+    private Map<Integer, RowList> rowsByUsername = new HashMap<>();
+    private int[] sortedAges = new int[0];   //[0, sortedRows) 구간 row의 age 오름차순
+    private int[] rowsByAge = new int[0];
+    private int sortedRows;
+
+    boolean hasTeam(long teamId) {
+        lock.readLock().lock();
+        try {
+            return teamCodeById.containsKey(teamId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 팀 추가 또는 이름 변경 */
+    void putTeam(long teamId, String name) {
+        lock.writeLock().lock();
+        try {
+            Integer code = teamCodeById.get(teamId);
+            if (code == null) {
+                code = teamIds.size();
+                teamIds.add(teamId);
+                teamNames.add(null);
+                teamCodeById.put(teamId, code);
+                rowsByTeam.add(new BitSet());
+            }
+            renameTeam(code, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 팀 삭제 - 팀 이름으로는 더 이상 찾지 못하게 */
+    void removeTeam(long teamId) {
+        lock.writeLock().lock();
+        try {
+            Integer code = teamCodeById.get(teamId);
+            if (code != null) renameTeam(code, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 회원 추가 또는 수정 - teamId는 putTeam으로 먼저 넣어 둔다 */
+    void put(long id, String username, int age, Long teamId) {
+        lock.writeLock().lock();
+        try {
+            removeRow(id);
+            int row = rows++;
+            ensureCapacity(rows);
+            ids[row] = id;
+            ages[row] = age;
+            teamCodes[row] = teamCode(teamId);
+            usernameCodes[row] = usernameCode(username);
+            live.set(row);
+            rowById.put(id, row);
+            if (teamCodes[row] != NO_TEAM) rowsByTeam.get(teamCodes[row]).set(row);
+            rowsByUsername.computeIfAbsent(usernameCodes[row], code -> new RowList()).add(row);
+
+            if (rows - sortedRows > Math.max(MIN_COMPACT_ROWS, sortedRows / 8)) compactInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeRow(id);
+            if (rows - rowById.size() > Math.max(MIN_COMPACT_ROWS, rows / 4)) compactInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 지운 row를 빼고 id 순으로 다시 배치, 인덱스 재생성 */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            compactInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long count(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            return filter(condition).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return page(condition, 0, Integer.MAX_VALUE, null, Sort.unsorted());
+    }
+
+    /**
+     * offset부터 limit건, total[0]에 전체 개수 - 같은 시점의 데이터로.
+     * 정렬은 MemberTeamDto 속성만 (모르는 속성은 무시), 같은 값끼리는 member_id 순. null은 H2처럼 가장 작은 값.
+     */
+    List<MemberTeamDto> page(MemberSearchCondition condition, long offset, int limit, long[] total, Sort sort) {
+        lock.readLock().lock();
+        try {
+            BitSet matched = filter(condition);
+            if (total != null) total[0] = matched.cardinality();
+
+            Comparator<Integer> comparator = rowComparator(sort);
+            List<MemberTeamDto> content = new ArrayList<>(Math.min(limit, 1024));
+            if (comparator != null) {
+                matched.stream().boxed().sorted(comparator).skip(offset).limit(limit)
+                        .forEach(row -> content.add(toDto(row)));
+                return content;
+            }
+
+            int row = matched.nextSetBit(0);
+            for (long skipped = 0; row >= 0 && skipped < offset; skipped++) {
+                row = matched.nextSetBit(row + 1);
+            }
+            for (; row >= 0 && content.size() < limit; row = matched.nextSetBit(row + 1)) {
+                content.add(toDto(row));
+            }
+            return content;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return rowById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet filter(MemberSearchCondition condition) {
+        BitSet result = (BitSet) live.clone();
+
+        if (hasText(condition.getUsername())) {
+            BitSet byUsername = new BitSet();
+            Integer code = usernameCodeByName.get(condition.getUsername());
+            RowList usernameRows = code != null ? rowsByUsername.get(code) : null;
+            if (usernameRows != null) {
+                for (int i = 0; i < usernameRows.size; i++) byUsername.set(usernameRows.values[i]);
+            }
+            result.and(byUsername);
+        }
+
+        if (hasText(condition.getTeamName())) {
+            BitSet byTeam = new BitSet();
+            for (int code : teamCodesByName.getOrDefault(condition.getTeamName(), List.of())) {
+                byTeam.or(rowsByTeam.get(code));
+            }
+            result.and(byTeam);
+        }
+
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            int goe = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+            int loe = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+            result.and(ageRange(goe, loe));
+        }
+        return result;
+    }
+
+    /** 정렬된 구간은 이진 탐색, 그 뒤에 붙은 row는 하나씩 */
+    private BitSet ageRange(int goe, int loe) {
+        BitSet result = new BitSet(rows);
+        if (goe > loe) return result;
+
+        int from = lowerBound(sortedAges, goe);
+        int to = loe == Integer.MAX_VALUE ? sortedAges.length : lowerBound(sortedAges, loe + 1);
+        for (int i = from; i < to; i++) result.set(rowsByAge[i]);
+
+        for (int row = sortedRows; row < rows; row++) {
+            if (ages[row] >= goe && ages[row] <= loe) result.set(row);
+        }
+        return result;
+    }
+
+    /** 반영할 정렬이 없으면 null - row 순서(member_id 순) 그대로 */
+    private Comparator<Integer> rowComparator(Sort sort) {
+        Comparator<Integer> comparator = null;
+        for (Sort.Order order : sort) {
+            MemberField field = MemberField.ofProperty(order.getProperty()).orElse(null);
+            if (field == null) continue;
+            Comparator<Integer> next = rowComparator(field);
+            if (order.isDescending()) next = next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator == null ? null : comparator.thenComparing(rowComparator(MemberField.MEMBER_ID));
+    }
+
+    private Comparator<Integer> rowComparator(MemberField field) {
+        switch (field) {
+            case MEMBER_ID: return Comparator.comparingLong(row -> ids[row]);
+            case USERNAME: return Comparator.comparing(row -> usernames.get(usernameCodes[row]));
+            case AGE: return Comparator.comparingInt(row -> ages[row]);
+            case TEAM_ID: return Comparator.comparing(row -> teamCodes[row] == NO_TEAM ? null : teamIds.get(teamCodes[row]),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            case TEAM_NAME: return Comparator.comparing(row -> teamCodes[row] == NO_TEAM ? null : teamNames.get(teamCodes[row]),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            default: throw new IllegalArgumentException("지원하지 않는 필드입니다: " + field);
+        }
+    }
+
+    private MemberTeamDto toDto(int row) {
+        int teamCode = teamCodes[row];
+        return new MemberTeamDto(ids[row], usernames.get(usernameCodes[row]), ages[row],
+                teamCode == NO_TEAM ? null : teamIds.get(teamCode),
+                teamCode == NO_TEAM ? null : teamNames.get(teamCode));
+    }
+
+    private void removeRow(long id) {
+        Integer row = rowById.remove(id);
+        if (row == null) return;
+        live.clear(row);
+        if (teamCodes[row] != NO_TEAM) rowsByTeam.get(teamCodes[row]).clear(row);
+    }
+
+    private void compactInternal() {
+        long[] liveIds = new long[rowById.size()];
+        int n = 0;
+        for (Long id : rowById.keySet()) liveIds[n++] = id;
+        Arrays.sort(liveIds);
+
+        long[] newIds = new long[Math.max(INITIAL_CAPACITY, n)];
+        int[] newAges = new int[newIds.length];
+        int[] newTeamCodes = new int[newIds.length];
+        int[] newUsernameCodes = new int[newIds.length];
+        Map<Long, Integer> newRowById = new HashMap<>(n * 2);
+        for (int row = 0; row < n; row++) {
+            int old = rowById.get(liveIds[row]);
+            newIds[row] = liveIds[row];
+            newAges[row] = ages[old];
+            newTeamCodes[row] = teamCodes[old];
+            newUsernameCodes[row] = usernameCodes[old];
+            newRowById.put(liveIds[row], row);
+        }
+        ids = newIds;
+        ages = newAges;
+        teamCodes = newTeamCodes;
+        usernameCodes = newUsernameCodes;
+        rows = n;
+        rowById = newRowById;
+        live = new BitSet(n);
+        live.set(0, n);
+        rebuildIndexes();
+    }
+
+    private void rebuildIndexes() {
+        rowsByTeam = new ArrayList<>(teamIds.size());
+        for (int i = 0; i < teamIds.size(); i++) rowsByTeam.add(new BitSet(rows));
+        rowsByUsername = new HashMap<>(rows * 2);
+        for (int row = 0; row < rows; row++) {
+            if (teamCodes[row] != NO_TEAM) rowsByTeam.get(teamCodes[row]).set(row);
+            rowsByUsername.computeIfAbsent(usernameCodes[row], code -> new RowList()).add(row);
+        }
+
+        //(age << 32 | row) 를 정렬하면 age 순, 같은 age면 row 순
+        long[] keys = new long[rows];
+        for (int row = 0; row < rows; row++) keys[row] = ((long) ages[row] << 32) | row;
+        Arrays.sort(keys);
+        sortedAges = new int[rows];
+        rowsByAge = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            sortedAges[i] = (int) (keys[i] >> 32);
+            rowsByAge[i] = (int) keys[i];
+        }
+        sortedRows = rows;
+    }
+
+    private void renameTeam(int code, String name) {
+        String old = teamNames.get(code);
+        if (old != null) {
+            List<Integer> codes = teamCodesByName.get(old);
+            codes.remove(Integer.valueOf(code));
+            if (codes.isEmpty()) teamCodesByName.remove(old);
+        }
+        teamNames.set(code, name);
+        if (name != null) teamCodesByName.computeIfAbsent(name, k -> new ArrayList<>()).add(code);
+    }
+
+    private int teamCode(Long teamId) {
+        if (teamId == null) return NO_TEAM;
+        Integer code = teamCodeById.get(teamId);
+        if (code != null) return code;
+
+        //이름을 모르는 팀 - 나중에 putTeam으로 이름이 들어온다
+        code = teamIds.size();
+        teamIds.add(teamId);
+        teamNames.add(null);
+        teamCodeById.put(teamId, code);
+        rowsByTeam.add(new BitSet());
+        return code;
+    }
+
+    private int usernameCode(String username) {
+        return usernameCodeByName.computeIfAbsent(username, name -> {
+            usernames.add(name);
+            return usernames.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        ages = Arrays.copyOf(ages, newCapacity);
+        teamCodes = Arrays.copyOf(teamCodes, newCapacity);
+        usernameCodes = Arrays.copyOf(usernameCodes, newCapacity);
+    }
+
+    /** 같은 username의 row 목록 - 꽉 차면 두 배로 늘린다 (추가할 때마다 복사하지 않게) */
+    private static class RowList {
+        private int[] values = new int[1];
+        private int size;
+
+        void add(int row) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = row;
+        }
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,174 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * MemberRepositoryImpl의 search, searchPageComplex를 DB 대신 메모리 컬럼 저장소(MemberColumnStore)에서
+ * 시작할 때 member, team 테이블에서 만들고, 이후에는 커밋된 회원/팀 변경만 반영한다.
+ * 결과 순서는 member_id 순 (수정된 회원은 다음 compact 전까지 뒤쪽), 페이징은 Pageable 정렬을 DB와 같은 규칙으로 반영한다.
+ * rebuild 중에 들어온 변경은 기록해 뒀다가 새 저장소로 바꿀 때 다시 적용한다.
+ */
+@Slf4j
+@Repository
+public class MemberColumnarRepository implements MemberSearchRepository {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private volatile MemberColumnStore store = new MemberColumnStore();
+    private final Object changeLock = new Object();
+    private List<Consumer<MemberColumnStore>> changesDuringRebuild; //changeLock으로 보호, rebuild 중이 아니면 null
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+
+    public MemberColumnarRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        //커밋 후 이벤트에서 읽으므로 끝난 트랜잭션에 참여하지 않게 새로 연다
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /** 전체를 다시 읽어서 새 저장소로 바꾼다 */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        MemberColumnStore fresh = new MemberColumnStore();
+        synchronized (changeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            readTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.query("select id, name from team",
+                        (RowCallbackHandler) rs -> fresh.putTeam(rs.getLong(1), rs.getString(2)));
+                loadMembers(fresh::put, "select member_id, username, age, team_id from member");
+            });
+            fresh.compact();
+            synchronized (changeLock) {
+                //읽는 동안 커밋된 변경 - 이미 읽힌 것이어도 같은 값을 다시 넣을 뿐이다
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                store = fresh;
+            }
+        } finally {
+            synchronized (changeLock) {
+                changesDuringRebuild = null;
+            }
+        }
+        log.info("컬럼 저장소 생성 members={}, elapsed={}ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return store.search(condition);
+    }
+
+    /** content와 전체 개수를 같은 시점의 데이터로 - count 쿼리가 따로 없다 */
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        long[] total = new long[1];
+        List<MemberTeamDto> content = store.page(condition, pageable.getOffset(), pageable.getPageSize(), total, pageable.getSort());
+        return new PageImpl<>(content, pageable, total[0]);
+    }
+
+    public long count(MemberSearchCondition condition) {
+        return store.count(condition);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED:
+                Long teamId = event.getTeamId();
+                String teamName = teamId != null && !store.hasTeam(teamId) ? loadTeamName(teamId) : null;
+                apply(current -> {
+                    if (teamName != null && !current.hasTeam(teamId)) current.putTeam(teamId, teamName);
+                    current.put(event.getMemberId(), event.getUsername(), event.getAge(), teamId);
+                });
+                break;
+            case DELETED:
+                apply(current -> current.remove(event.getMemberId()));
+                break;
+            case BULK:
+                if (event.getFromId() == null) {
+                    rebuild();
+                } else {
+                    //벌크 연산으로 지워진 회원이 있을 수 있으므로 구간을 비우고 다시 읽은 값으로 채운다
+                    List<Consumer<MemberColumnStore>> puts = new ArrayList<>();
+                    readTransaction.executeWithoutResult(status -> loadMembers(
+                            (id, username, age, memberTeamId) -> puts.add(target -> target.put(id, username, age, memberTeamId)),
+                            "select member_id, username, age, team_id from member where member_id between ? and ?",
+                            event.getFromId(), event.getToId()));
+                    apply(current -> {
+                        for (long id = event.getFromId(); id <= event.getToId(); id++) current.remove(id);
+                        puts.forEach(put -> put.accept(current));
+                    });
+                }
+                break;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeamChanged(TeamChangedEvent event) {
+        if (event.getType() == TeamChangedEvent.Type.SAVED) {
+            apply(current -> current.putTeam(event.getTeamId(), event.getName()));
+        } else {
+            apply(current -> current.removeTeam(event.getTeamId()));
+        }
+    }
+
+    /** 지금 저장소에 반영하고, rebuild 중이면 새 저장소에도 다시 적용하도록 기록 */
+    private void apply(Consumer<MemberColumnStore> change) {
+        synchronized (changeLock) {
+            change.accept(store);
+            if (changesDuringRebuild != null) changesDuringRebuild.add(change);
+        }
+    }
+
+    private String loadTeamName(Long teamId) {
+        return readTransaction.execute(status -> jdbcTemplate.query("select name from team where id = ?",
+                (ResultSetExtractor<String>) rs -> rs.next() ? rs.getString(1) : null, teamId));
+    }
+
+    private void loadMembers(MemberRowSink target, String sql, Object... args) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long value = rs.getLong(4);
+            Long teamId = rs.wasNull() ? null : value; //wasNull은 바로 앞에서 읽은 컬럼 기준
+            target.put(rs.getLong(1), rs.getString(2), rs.getInt(3), teamId);
+        });
+    }
+
+    @FunctionalInterface
+    private interface MemberRowSink {
+        void put(long id, String username, int age, Long teamId);
+    }
+}
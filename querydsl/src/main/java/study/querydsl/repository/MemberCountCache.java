@@ -0,0 +1,116 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.CacheStatsDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * searchPageComplex의 count 쿼리 결과 캐시
+ * 검색 조건별로 TTL 동안 보관하고, 최대 개수를 넘으면 가장 오래 안 쓴(LRU) 것부터 버린다.
+ * 회원이 바뀌면 전부 무효화한다.
+ */
+@Component
+public class MemberCountCache {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<MemberSearchCondition, Entry> cache;
+
+    private long generation;    //무효화 될 때마다 증가 - 무효화 전에 시작한 count 결과는 넣지 않는다
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MemberCountCache(@Value("${member.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${member.count-cache.max-size:1000}") int maxSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) { // accessOrder = true -> LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemberSearchCondition, Entry> eldest) {
+                if (size() > MemberCountCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** 캐시에 있으면 그 값을, 없으면 loader로 count 쿼리를 실행해서 넣는다 */
+    public long getOrLoad(MemberSearchCondition condition, LongSupplier loader) {
+        MemberSearchCondition key = condition.normalize();
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = cache.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return entry.count;
+            }
+            if (entry != null) cache.remove(key);
+            misses++;
+            loadGeneration = generation;
+        }
+
+        long count = loader.getAsLong(); //락 밖에서 실행
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                cache.put(key, new Entry(count, System.nanoTime() + ttlNanos));
+            }
+        }
+        return count;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        cache.clear();
+    }
+
+    public synchronized CacheStatsDto stats() {
+        return new CacheStatsDto(hits, misses, evictions, cache.size());
+    }
+
+    /** 변경 즉시(같은 트랜잭션에서 다시 조회하는 경우) 한 번 */
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        invalidateAll();
+    }
+
+    /** 커밋/롤백 후에 한 번 더 - 그 사이 다른 트랜잭션이 예전 값을 넣었을 수 있다 */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onMemberChangeCompleted(MemberChangedEvent event) {
+        invalidateAll();
+    }
+
+    /** 팀 이름이 바뀌면 teamName 조건 결과도 바뀐다 */
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onTeamChangeCompleted(TeamChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        private Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
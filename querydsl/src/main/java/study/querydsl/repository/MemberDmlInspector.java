@@ -0,0 +1,33 @@
+package study.querydsl.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.regex.Pattern;
+
+/**
+ * member/team 테이블을 바꾸는 update/delete SQL을 보면 검색 캐시를 무효화한다 (HibernateConfig에서 등록)
+ * 벌크 JPQL, 네이티브 DML은 엔티티 리스너를 거치지 않으므로 어느 코드에서 실행했든 SQL 단계에서 잡는다.
+ * SQL은 바꾸지 않고 delegate(SqlStatementCounter)에 그대로 넘긴다.
+ */
+public class MemberDmlInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    //member_search 같은 다른 테이블은 제외 (\b 뒤에 _가 오면 단어 경계가 아니다)
+    private static final Pattern MEMBER_DML = Pattern.compile(
+            "^\\s*(update|delete\\s+from)\\s+(member|team)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final StatementInspector delegate;
+    private final transient MemberSearchCache memberSearchCache;
+
+    public MemberDmlInspector(StatementInspector delegate, MemberSearchCache memberSearchCache) {
+        this.delegate = delegate;
+        this.memberSearchCache = memberSearchCache;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (memberSearchCache != null && MEMBER_DML.matcher(sql).find()) memberSearchCache.onDml();
+        return delegate.inspect(sql);
+    }
+}
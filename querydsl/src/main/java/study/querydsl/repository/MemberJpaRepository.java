@@ -3,19 +3,26 @@ package study.querydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
 
 import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
@@ -24,12 +31,19 @@ import static study.querydsl.entity.QTeam.team;
 @Repository
 public class MemberJpaRepository {
 
+    /** 스트리밍 조회 시 JDBC 드라이버가 한 번에 가져오는 row 수 */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final QTeam teamByName = new QTeam("teamByName");
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchTemplates searchTemplates;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, MemberSearchTemplates searchTemplates) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchTemplates = searchTemplates;
     }
 
     /** 회원 저장 */
@@ -58,6 +72,39 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /** 회원 전체 조회 + 팀 페치 조인 - 팀이 없는 회원도 포함 */
+    public List<Member> findAllWithTeam() {
+        return em.createQuery("select m from Member m left join fetch m.team", Member.class)
+                .getResultList();
+    }
+
+    /** 회원 전체 조회 (읽기 전용) - 변경 감지용 스냅샷을 만들지 않고 flush도 하지 않는다 */
+    @Transactional(readOnly = true)
+    public List<Member> findAllReadOnly() {
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL)
+                .getResultList();
+    }
+
+    /** 회원 전체 조회 querydsl + 팀 페치 조인 */
+    public List<Member> findAll_QuerydslWithTeam() {
+        return queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .fetch();
+    }
+
+    /** 회원 전체 조회 querydsl (읽기 전용) */
+    @Transactional(readOnly = true)
+    public List<Member> findAll_QuerydslReadOnly() {
+        return queryFactory
+                .selectFrom(member)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL)
+                .fetch();
+    }
+
     /** 회원 이름으로 조회 */
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
@@ -65,6 +112,16 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    /** 회원 이름으로 조회 (읽기 전용) */
+    @Transactional(readOnly = true)
+    public List<Member> findByUsernameReadOnly(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL)
+                .getResultList();
+    }
+
     /** 회원 이름으로 조회 Querydsl*/
     public List<Member> findByUsername_Querydsl(String username) {
         return queryFactory
@@ -74,6 +131,7 @@ public class MemberJpaRepository {
     }
 
     /** 동적쿼리 Builder 사용 */
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
@@ -81,7 +139,7 @@ public class MemberJpaRepository {
             builder.and(member.username.eq(condition.getUsername()));
 
         if(hasText(condition.getTeamName()))
-            builder.and(team.name.eq(condition.getTeamName()));
+            builder.and(teamNameEq(condition.getTeamName()));
 
         if(condition.getAgeGoe() != null)
             builder.and(member.age.goe(condition.getAgeGoe()));
@@ -103,6 +161,7 @@ public class MemberJpaRepository {
     }
 
     /** 메소드를 활용한 동적쿼리 */
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
@@ -123,6 +182,49 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /** search와 같은 결과 - 미리 만들어 둔 조건 조합별 named query에 값만 바인딩 */
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> searchPrecompiled(MemberSearchCondition condition) {
+        return searchTemplates.create(em, condition).getResultList();
+    }
+
+    /**
+     * 검색 결과를 List로 모으지 않고 forward-only 스크롤로 한 건씩 넘긴다.
+     * DTO 프로젝션이라 영속성 컨텍스트에도 쌓이지 않으므로 애플리케이션 힙은 결과 건수와 상관없이 일정하다.
+     * 드라이버/DB 쪽 버퍼링은 DB에 따라 다르다 (H2는 LAZY_QUERY_EXECUTION=1 이 아니면 결과를 모두 만들어 둔다).
+     * 스트림은 트랜잭션 안에서만 열려 있으므로 action도 이 메소드 안에서 실행된다.
+     */
+    @Transactional(readOnly = true)
+    public long searchStream(MemberSearchCondition condition, Consumer<MemberTeamDto> action) {
+        try (Stream<MemberTeamDto> stream = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc())
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .stream()) {
+
+            long count = 0;
+            for (MemberTeamDto dto : (Iterable<MemberTeamDto>) stream::iterator) {
+                action.accept(dto);
+                count++;
+            }
+            return count;
+        }
+    }
+
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
         return ageGoe(ageGoe).and(ageLoe(ageLoe));
     }
@@ -135,8 +237,12 @@ public class MemberJpaRepository {
         return ageGoe != null ? member.age.goe(ageGoe) : null;
     }
 
+    /** 팀 이름은 id 서브쿼리로 걸러야 인덱스를 탄다 (MemberRepositoryImpl.teamNameEq 참고) */
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(JPAExpressions
+                .select(teamByName.id)
+                .from(teamByName)
+                .where(teamByName.name.eq(teamName))) : null;
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -1,11 +1,24 @@
 package study.querydsl.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
     //select m from Member m where m.username = ?   메소드 이름이 중요
     List<Member> findByUsername(String username);
+
+    //읽기 전용 - 변경 감지용 스냅샷을 만들지 않는다
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Member> findReadOnlyByUsername(String username);
+
+    //team을 같은 쿼리에서 같이 가져온다 (left outer join) - member.getTeam() 접근 시 추가 쿼리 없음
+    @EntityGraph(attributePaths = "team")
+    List<Member> findWithTeamByUsername(String username);
 }
@@ -2,18 +2,65 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.MemberCountedPage;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public interface MemberRepositoryCustom {
+public interface MemberRepositoryCustom extends MemberSearchRepository {
     /** 스프링 데이터 JPA를 사용하면서 내가 직접 구현해서 사용하고 싶다면 이름을 직접 지정 후 구현*/
     List<MemberTeamDto> search(MemberSearchCondition condition);
     
+    //Pageable 정렬은 MemberTeamDto 속성(memberId, username, age, teamId, teamName)만, 그 외 속성은 무시 - searchByUsername 제외
+
     //단순
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     
     //복잡
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+    //복잡 - content 쿼리와 count 쿼리를 동시에
+    Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable);
+
+    //count 없이 다음 페이지 여부만 (무한 스크롤)
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    //커서(keyset) - offset 없이 member_id 기준으로 다음 페이지 조회, size는 1 ~ 2000, 잘못된 커서는 InvalidSearchRequestException(400)
+    MemberCursorPage searchByCursor(MemberSearchCondition condition, String cursor, int size);
+
+    /** fields에 있는 속성만 조회 (속성 이름 -> 값, fields 순서대로) - team 컬럼을 고르지 않으면 team 조인도 하지 않는다 */
+    List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields);
+
+    Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberField> fields, Pageable pageable);
+
+    /**
+     * searchPageComplex와 같은 페이지를 DTO/List 없이 handler로 한 건씩 넘긴다 (응답에 바로 쓰기용)
+     * @return 전체 건수 - 마지막 페이지면 count 쿼리 없이 계산
+     */
+    long searchPageRows(MemberSearchCondition condition, Pageable pageable, MemberRowHandler handler);
+
+    /** username 부분 검색 - 메모리 인덱스로 member id를 찾고 해당 페이지의 id만 조회 (전체 개수는 인덱스 기준, 최대 member.username-index.max-matches) */
+    Page<MemberTeamDto> searchByUsername(UsernameMatch match, String keyword, Pageable pageable);
+
+    /**
+     * 벌크 연산 - 조건에 맞는 회원을 member_id 구간(chunkSize)별로 나눠서 처리하고 구간마다 커밋
+     * 호출한 쪽 트랜잭션이 있으면 거기에 참여하고(구간별 커밋 없음), 끝나면 영속성 컨텍스트를 비운다.
+     * @return 바뀐 row 수
+     */
+    long bulkAddAge(MemberSearchCondition condition, int delta, int chunkSize, BulkProgressListener listener);
+
+    long bulkChangeTeam(MemberSearchCondition condition, Long teamId, int chunkSize, BulkProgressListener listener);
+
+    long bulkDelete(MemberSearchCondition condition, int chunkSize, BulkProgressListener listener);
+
+    //전체 개수를 cap 건까지만 세거나 통계로 추정
+    MemberCountedPage searchPageCounted(MemberSearchCondition condition, Pageable pageable, CountMode countMode, int cap);
 }
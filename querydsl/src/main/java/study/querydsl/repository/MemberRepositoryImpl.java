@@ -1,34 +1,118 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkProgress;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.InvalidSearchRequestException;
+import study.querydsl.dto.MemberCountedPage;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.QTeam;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.metrics.StatementGuard;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
+@Transactional(readOnly = true) //조회 전용 - flush, 변경 감지를 하지 않는다
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    /** 팀 이름 서브쿼리용 - 바깥 쿼리의 team 별칭과 겹치지 않게 */
+    private static final QTeam teamByName = new QTeam("teamByName");
+
+    /** 커서 페이지 최대 크기 - 스프링 데이터 기본 max-page-size와 같다 */
+    static final int MAX_CURSOR_SIZE = 2000;
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final AsyncTaskExecutor countQueryExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration countTimeout;
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MemberUsernameIndex usernameIndex;
+    private final int maxCountCap;
+    private final StatementGuard statementGuard;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, MemberCountCache countCache,
+                                @Qualifier("countQueryExecutor") AsyncTaskExecutor countQueryExecutor,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${member.concurrent-count.timeout:5s}") Duration countTimeout,
+                                ApplicationEventPublisher eventPublisher,
+                                MemberUsernameIndex usernameIndex,
+                                @Value("${member.count-cap-max:100000}") int maxCountCap,
+                                StatementGuard statementGuard) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.countQueryExecutor = countQueryExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.countTimeout = countTimeout;
+        this.chunkTransaction = new TransactionTemplate(transactionManager); //REQUIRED - 바깥 트랜잭션이 있으면 참여
+        this.eventPublisher = eventPublisher;
+        this.usernameIndex = usernameIndex;
+        this.maxCountCap = maxCountCap;
+        this.statementGuard = statementGuard;
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
@@ -70,6 +154,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(orderBy(pageable))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetchResults();//results는 content 쿼리, count 쿼리 둘다 날린다.
@@ -99,6 +184,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(orderBy(pageable))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch(); //results는 content 쿼리, count 쿼리 둘다 날린다.
@@ -115,11 +201,530 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageLoe(condition.getAgeLoe())
                 );
 
-        //최적화
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+        //최적화 - count가 필요할 때도 같은 조건이면 캐시된 값을 쓴다
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrLoad(condition, countQuery::fetchCount));
 //        return new PageImpl<>(content, pageable, total);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long searchPageRows(MemberSearchCondition condition, Pageable pageable, MemberRowHandler handler) {
+        long rows = 0;
+        try (Stream<Tuple> stream = queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(orderBy(pageable))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .setHint(QueryHints.READ_ONLY, true)
+                .stream()) {
+
+            for (Tuple row : (Iterable<Tuple>) stream::iterator) {
+                handler.onRow(row.get(member.id), row.get(member.username), row.get(member.age),
+                        row.get(team.id), row.get(team.name));
+                rows++;
+            }
+        }
+
+        //PageableExecutionUtils와 같은 규칙 - 첫 페이지가 덜 찼거나 마지막 페이지면 count 쿼리 생략
+        if (rows < pageable.getPageSize() && (rows > 0 || pageable.getOffset() == 0)) {
+            return pageable.getOffset() + rows;
+        }
+        return countCache.getOrLoad(condition, () -> queryFactory
+                .select(member.count())
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .fetchOne());
+    }
+
+    @Override
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields) {
+        return toMaps(fieldsQuery(condition, fields, Sort.unsorted()).fetch(), fields);
+    }
+
+    @Override
+    public Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberField> fields, Pageable pageable) {
+        List<Tuple> content = fieldsQuery(condition, fields, pageable.getSort())
+                .orderBy(orderBy(pageable))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        //teamNameEq는 서브쿼리라 count도 team 조인 없이
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+
+        return PageableExecutionUtils.getPage(toMaps(content, fields), pageable,
+                () -> countCache.getOrLoad(condition, countQuery::fetchOne));
+    }
+
+    /** 고른 컬럼만 select - team.id는 member.team_id 컬럼으로 읽으므로 team 조인은 teamName을 고르거나 teamName으로 정렬할 때만 */
+    private JPAQuery<Tuple> fieldsQuery(MemberSearchCondition condition, Set<MemberField> fields, Sort sort) {
+        if (fields.isEmpty()) throw new IllegalArgumentException("조회할 필드가 없습니다");
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(fields.stream().map(MemberRepositoryImpl::fieldExpression).toArray(Expression[]::new))
+                .from(member);
+        boolean sortByTeamName = sort.stream().anyMatch(order -> order.getProperty().equals(MemberField.TEAM_NAME.property()));
+        if (fields.contains(MemberField.TEAM_NAME) || sortByTeamName) query.leftJoin(member.team, team);
+        return query.where(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    private static Expression<?> fieldExpression(MemberField field) {
+        switch (field) {
+            case MEMBER_ID: return member.id;
+            case USERNAME: return member.username;
+            case AGE: return member.age;
+            case TEAM_ID: return member.team.id;
+            case TEAM_NAME: return team.name;
+            default: throw new IllegalArgumentException("지원하지 않는 필드입니다: " + field);
+        }
+    }
+
+    /** select 순서 = fields 순서 */
+    private List<Map<String, Object>> toMaps(List<Tuple> rows, Set<MemberField> fields) {
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+            int i = 0;
+            for (MemberField field : fields) {
+                values.put(field.property(), row.get(i++, Object.class));
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    /**
+     * searchPageComplex와 같은 결과를 content 쿼리와 count 쿼리를 동시에 실행해서 만든다.
+     * count는 countQueryExecutor에서 별도 커넥션/읽기 전용 트랜잭션으로 돌고, 어느 한쪽이 실패하면 다른 쪽은 취소한다.
+     * 호출한 쪽 트랜잭션이 있으면 다른 커넥션에서는 그 트랜잭션이 쓴 데이터가 안 보이므로 순서대로 실행한다.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return searchPageComplex(condition, pageable);
+        }
+
+        Future<Long> countFuture;
+        try {
+            countFuture = countQueryExecutor.submit(() -> readOnlyTransaction.execute(status ->
+                    countCache.getOrLoad(condition, () -> queryFactory
+                            .select(member.count())
+                            .from(member)
+                            .leftJoin(member.team, team)
+                            .where(
+                                    usernameEq(condition.getUsername()),
+                                    teamNameEq(condition.getTeamName()),
+                                    ageGoe(condition.getAgeGoe()),
+                                    ageLoe(condition.getAgeLoe())
+                            )
+                            .setHint("javax.persistence.query.timeout", (int) countTimeout.toMillis())
+                            .fetchOne())));
+        } catch (TaskRejectedException e) {
+            //count 스레드 풀이 가득 찼으면 그냥 순서대로
+            return searchPageComplex(condition, pageable);
+        }
+
+        List<MemberTeamDto> content;
+        try {
+            content = queryFactory
+                    .select(new QMemberTeamDto(
+                            member.id.as("memberId"),
+                            member.username,
+                            member.age,
+                            team.id.as("teamId"),
+                            team.name.as("teamName")))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(
+                            usernameEq(condition.getUsername()),
+                            teamNameEq(condition.getTeamName()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    )
+                    .orderBy(orderBy(pageable))
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .fetch();
+        } catch (RuntimeException e) {
+            countFuture.cancel(true);
+            throw e;
+        }
+
+        //마지막 페이지라 count가 필요 없으면 기다리지 않는다
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            countFuture.cancel(true);
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+        return new PageImpl<>(content, pageable, awaitCount(countFuture));
+    }
+
+    private long awaitCount(Future<Long> countFuture) {
+        try {
+            return countFuture.get(countTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            countFuture.cancel(true);
+            throw new QueryTimeoutException("count 쿼리가 " + countTimeout + " 안에 끝나지 않았습니다.", e);
+        } catch (InterruptedException e) {
+            countFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("count 쿼리 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("count 쿼리 실패", e.getCause());
+        }
+    }
+
+    /** pageSize + 1 건을 읽어서 다음 페이지가 있는지만 판단 - count 쿼리를 날리지 않는다 */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(orderBy(pageable))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /** offset 대신 마지막으로 본 member_id 이후부터 읽어서 몇 번째 페이지든 비용이 같다 */
+    @Override
+    public MemberCursorPage searchByCursor(MemberSearchCondition condition, String cursor, int requestedSize) {
+        int size = Math.max(1, Math.min(requestedSize, MAX_CURSOR_SIZE)); //size + 1 이 넘치지 않도록
+
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        memberIdGt(decodeCursor(cursor)),
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc())
+                .limit(size + 1) // 한 건 더 읽어서 다음 페이지 존재 여부 확인
+                .fetch();
+
+        String nextCursor = null;
+        if (content.size() > size) {
+            content = new ArrayList<>(content.subList(0, size));
+            nextCursor = encodeCursor(content.get(size - 1).getMemberId());
+        }
+        return new MemberCursorPage(content, size, nextCursor);
+    }
+
+    /** count 비용이 테이블 크기에 비례하지 않도록 cap 건까지만 세거나 통계 추정치를 쓴다 */
+    @Override
+    public MemberCountedPage searchPageCounted(MemberSearchCondition condition, Pageable pageable,
+                                               CountMode countMode, int cap) {
+        if (cap < 1 || cap > maxCountCap)
+            throw new InvalidSearchRequestException("countCap은 1 ~ " + maxCountCap + " 이어야 합니다: " + cap);
+
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(orderBy(pageable))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        long seen = pageable.getOffset() + content.size();
+        //마지막 페이지면 count 없이 전체 개수를 알 수 있다
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new MemberCountedPage(content, pageable.getPageNumber(), pageable.getPageSize(), seen, true, CountMode.EXACT);
+        }
+
+        if (countMode == CountMode.EXACT) {
+            long total = countCache.getOrLoad(condition, () -> queryFactory
+                    .select(member.count())
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(
+                            usernameEq(condition.getUsername()),
+                            teamNameEq(condition.getTeamName()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    )
+                    .fetchOne());
+            return new MemberCountedPage(content, pageable.getPageNumber(), pageable.getPageSize(), total, true, countMode);
+        }
+
+        //통계 추정치는 테이블 전체 row 수뿐이라 조건이 있으면 CAPPED로 센다 - 응답의 countMode도 CAPPED
+        if (countMode == CountMode.ESTIMATED && isEmpty(condition)) {
+            Long estimate = estimateMemberRows();
+            if (estimate != null) {
+                long total = Math.max(estimate, seen);
+                return new MemberCountedPage(content, pageable.getPageNumber(), pageable.getPageSize(), total, false, countMode);
+            }
+        }
+
+        //CAPPED - 이미 cap을 넘은 페이지면 더 세지 않고 '최소 seen건'
+        if (seen > cap && !content.isEmpty()) {
+            return new MemberCountedPage(content, pageable.getPageNumber(), pageable.getPageSize(), seen, false, CountMode.CAPPED);
+        }
+        long counted = countUpTo(condition, cap + 1); //cap보다 하나 더 있으면 '최소 cap건'
+        boolean exact = counted <= cap;
+        return new MemberCountedPage(content, pageable.getPageNumber(), pageable.getPageSize(),
+                exact ? counted : cap, exact, CountMode.CAPPED);
+    }
+
+    /**
+     * limit 걸린 서브쿼리 위에서 count(*) - id를 애플리케이션으로 가져오지 않고 DB가 limit 건에서 멈춘다.
+     * JPQL 서브쿼리에는 limit을 쓸 수 없어서 네이티브 SQL (조건은 usernameEq, teamNameEq, ageGoe, ageLoe와 같다)
+     */
+    private long countUpTo(MemberSearchCondition condition, long limit) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (hasText(condition.getUsername())) {
+            where.append(" and m.username = ?");
+            params.add(condition.getUsername());
+        }
+        if (hasText(condition.getTeamName())) {
+            where.append(" and m.team_id in (select t.id from team t where t.name = ?)");
+            params.add(condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            where.append(" and m.age >= ?");
+            params.add(condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            where.append(" and m.age <= ?");
+            params.add(condition.getAgeLoe());
+        }
+        params.add(limit);
+
+        Query query = em.createNativeQuery(
+                "select count(*) from (select 1 from member m where " + where + " limit ?) capped");
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /** like '%keyword%' 는 인덱스를 못 타므로 id는 메모리 인덱스에서, DB에는 페이지 크기만큼의 id로만 조회 */
+    @Override
+    public Page<MemberTeamDto> searchByUsername(UsernameMatch match, String keyword, Pageable pageable) {
+        long[] ids = usernameIndex.findIds(match, keyword);
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = (int) Math.min(from + (long) pageable.getPageSize(), ids.length);
+        if (from == to) return new PageImpl<>(new ArrayList<>(), pageable, ids.length);
+
+        List<Long> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(pageIds))
+                .orderBy(member.id.asc())
+                .fetch();
+        return new PageImpl<>(content, pageable, ids.length);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long bulkAddAge(MemberSearchCondition condition, int delta, int chunkSize, BulkProgressListener listener) {
+        return executeInChunks(condition, chunkSize, listener, (fromId, toId) -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(delta))
+                .where(member.id.between(fromId, toId), bulkCondition(condition))
+                .execute());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long bulkChangeTeam(MemberSearchCondition condition, Long teamId, int chunkSize, BulkProgressListener listener) {
+        if (teamId == null || em.find(Team.class, teamId) == null)
+            throw new IllegalArgumentException("존재하지 않는 팀입니다: " + teamId);
+        return executeInChunks(condition, chunkSize, listener, (fromId, toId) -> queryFactory
+                .update(member)
+                .set(member.team, em.getReference(Team.class, teamId))
+                .where(member.id.between(fromId, toId), bulkCondition(condition))
+                .execute());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long bulkDelete(MemberSearchCondition condition, int chunkSize, BulkProgressListener listener) {
+        return executeInChunks(condition, chunkSize, listener, (fromId, toId) -> queryFactory
+                .delete(member)
+                .where(member.id.between(fromId, toId), bulkCondition(condition))
+                .execute());
+    }
+
+    /**
+     * 조건에 맞는 member_id 범위를 chunkSize 구간으로 잘라서 구간마다 트랜잭션 하나로 실행
+     * 한 번에 전체를 바꾸면 락과 undo가 커지므로 구간별로 커밋한다.
+     * 벌크 연산은 엔티티 리스너를 거치지 않으므로 캐시 무효화 이벤트를 직접 발행한다.
+     * 구간 트랜잭션은 트랜잭션당 SQL 한도(StatementGuard)에서 뺀다.
+     */
+    private long executeInChunks(MemberSearchCondition condition, int chunkSize, BulkProgressListener listener,
+                                 LongBinaryOperator chunk) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        BulkProgressListener progressListener = listener != null ? listener : BulkProgressListener.NONE;
+
+        Tuple range = chunkTransaction.execute(status -> {
+            em.flush(); //바깥 트랜잭션에서 아직 반영 안 된 변경이 있으면 먼저 내보낸다
+            return queryFactory
+                    .select(member.id.min(), member.id.max())
+                    .from(member)
+                    .where(bulkCondition(condition))
+                    .fetchOne();
+        });
+        Long minId = range != null ? range.get(member.id.min()) : null;
+        Long maxId = range != null ? range.get(member.id.max()) : null;
+        if (minId == null || maxId == null) return 0;
+
+        long totalChunks = (maxId - minId) / chunkSize + 1;
+        long totalAffected = 0;
+        for (long i = 0; i < totalChunks; i++) {
+            long fromId = minId + i * chunkSize;
+            long toId = Math.min(fromId + chunkSize - 1, maxId);
+            long affected = chunkTransaction.execute(status -> {
+                statementGuard.skipTransactionBudget();
+                long count = chunk.applyAsLong(fromId, toId);
+                em.clear(); //벌크 연산은 영속성 컨텍스트를 건너뛰므로 남아 있는 엔티티는 낡은 값이다
+                if (count > 0) eventPublisher.publishEvent(MemberChangedEvent.bulk(fromId, toId));
+                return count;
+            });
+            totalAffected += affected;
+            progressListener.onChunk(new BulkProgress(i + 1, totalChunks, fromId, toId, affected, totalAffected));
+        }
+        return totalAffected;
+    }
+
+    /** 벌크 update/delete 는 join을 쓸 수 없다 - teamNameEq는 서브쿼리라 그대로 쓸 수 있다 */
+    private Predicate bulkCondition(MemberSearchCondition condition) {
+        return ExpressionUtils.allOf(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()));
+    }
+
+    /** H2 테이블 통계의 row 수 추정치 (없으면 null) */
+    private Long estimateMemberRows() {
+        List<?> result = em.createNativeQuery(
+                        "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES " +
+                        "where TABLE_SCHEMA = CURRENT_SCHEMA and TABLE_NAME = 'MEMBER'")
+                .getResultList();
+        if (result.isEmpty() || result.get(0) == null) return null;
+        return ((Number) result.get(0)).longValue();
+    }
+
+    private boolean isEmpty(MemberSearchCondition condition) {
+        return !hasText(condition.getUsername()) && !hasText(condition.getTeamName())
+                && condition.getAgeGoe() == null && condition.getAgeLoe() == null;
+    }
+
+    /**
+     * Pageable의 정렬 - MemberTeamDto 속성 이름(MemberField)만 반영하고 모르는 속성은 예전처럼 무시한다.
+     * 같은 값끼리는 member_id 순서로 고정해서 페이지 경계에서 row가 빠지거나 겹치지 않게 한다.
+     */
+    private OrderSpecifier<?>[] orderBy(Pageable pageable) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean byMemberId = false;
+        for (Sort.Order order : pageable.getSort()) {
+            MemberField field = MemberField.ofProperty(order.getProperty()).orElse(null);
+            if (field == null) continue;
+            ComparableExpressionBase<?> path = (ComparableExpressionBase<?>) fieldExpression(field);
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+            byMemberId |= field == MemberField.MEMBER_ID;
+        }
+        if (!orders.isEmpty() && !byMemberId) orders.add(member.id.asc());
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId != null ? member.id.gt(lastMemberId) : null;
+    }
+
+    /** 커서는 클라이언트가 해석하지 못하도록 base64로 감싼다 */
+    private String encodeCursor(Long memberId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("m:" + memberId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (!hasText(cursor)) return null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("m:") || decoded.length() == 2)
+                throw new InvalidSearchRequestException("잘못된 커서입니다: " + cursor);
+            return Long.valueOf(decoded.substring(2));
+        } catch (IllegalArgumentException e) { //base64, 숫자 형식 (NumberFormatException)
+            throw new InvalidSearchRequestException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
@@ -128,8 +733,15 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         return ageGoe != null ? member.age.goe(ageGoe) : null;
     }
 
+    /**
+     * team은 left join이라 H2가 조인 순서를 바꾸지 못해서 team.name 조건으로는 member를 전부 읽는다.
+     * 팀 id 서브쿼리로 바꾸면 team(name), member(team_id, age) 인덱스를 탄다.
+     */
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(JPAExpressions
+                .select(teamByName.id)
+                .from(teamByName)
+                .where(teamByName.name.eq(teamName))) : null;
     }
 
     private BooleanExpression usernameEq(String username) {
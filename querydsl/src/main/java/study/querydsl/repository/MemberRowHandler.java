@@ -0,0 +1,8 @@
+package study.querydsl.repository;
+
+/** 검색 결과를 DTO 없이 컬럼 값 그대로 한 건씩 받는다 */
+@FunctionalInterface
+public interface MemberRowHandler {
+
+    void onRow(Long memberId, String username, int age, Long teamId, String teamName);
+}
@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.CacheStatsDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 검색 결과 캐시 - 키는 (검색 종류, 정규화한 조건, 페이지, 버전)
+ * 회원이 바뀌면 버전을 올려서 이전 버전으로 만든 결과는 더 이상 쓰이지 않게 한다.
+ * 무게는 1 + 결과 row 수라서 maxWeight가 항목 수와 전체 row 수를 같이 제한한다.
+ * 벌크 JPQL/네이티브 DML은 엔티티 이벤트가 없으므로 MemberDmlInspector가 SQL을 보고 onDml()을 부른다.
+ */
+@Component
+public class MemberSearchCache {
+
+    private final Cache<Key, Object> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    public MemberSearchCache(@Value("${member.search-cache.max-weight:100000}") long maxWeight,
+                             @Value("${member.search-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Object value) -> weigh(value))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 캐시에 있으면 꺼내고 없으면 loader로 조회해서 넣는다
+     * @param kind 같은 조건이라도 결과 형태가 다른 검색을 구분 (ex. "v1", "v3")
+     * @param pageable 페이징이 없으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String kind, MemberSearchCondition condition, Pageable pageable, Supplier<T> loader) {
+        //조회 전에 읽은 버전으로 넣으므로, 조회 도중 변경이 생기면 그 결과는 다시 쓰이지 않는다
+        Key key = new Key(kind, condition.normalize(), pageable, version.get());
+        return (T) cache.get(key, k -> loader.get());
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * member/team을 바꾸는 SQL이 실행됨 - 바로 버전을 올리고, 트랜잭션 안이면 끝날 때 한 번 더 (커밋 전에 읽어서 넣은 결과 제거).
+     * SQL마다 불리므로 트랜잭션당 synchronization은 하나만 등록한다.
+     */
+    public void onDml() {
+        version.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidateAll();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) return;
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(MemberSearchCache.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(MemberSearchCache.this, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MemberSearchCache.this);
+                invalidateAll();
+            }
+        });
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onMemberChangeCompleted(MemberChangedEvent event) {
+        invalidateAll();
+    }
+
+    /** 팀 이름이 바뀌면 teamName 조건 결과도 바뀐다 */
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onTeamChangeCompleted(TeamChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof Collection) return 1 + ((Collection<?>) value).size();
+        if (value instanceof Slice) return 1 + ((Slice<?>) value).getNumberOfElements();
+        return 1;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final String kind;
+        private final MemberSearchCondition condition;
+        private final Pageable pageable;
+        private final long version;
+    }
+}
@@ -0,0 +1,158 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * member_search 읽기 모델(MemberSearch)을 회원/팀 변경에 맞춘다.
+ * - 회원 저장/삭제는 트랜잭션마다 모아 두었다가 JDBC batch로 반영 (커밋 직전, 읽기 모델 조회 직전, 모인 건수가 APPLY_BATCH_SIZE 일 때)
+ * - 팀 이름 변경, 벌크 연산은 바로 반영
+ * 모두 JPA 트랜잭션과 같은 커넥션에서 실행되므로 롤백되면 같이 롤백된다.
+ */
+@Slf4j
+@Component
+public class MemberSearchProjection {
+
+    static final int APPLY_BATCH_SIZE = 1000;
+
+    private static final Object PENDING_KEY = new Object();
+
+    private static final String UPSERT =
+            "merge into member_search (member_id, username, age, team_id, team_name) key (member_id) " +
+            "values (?, ?, ?, ?, (select t.name from team t where t.id = ?))";
+    private static final String DELETE = "delete from member_search where member_id = ?";
+    private static final String DELETE_RANGE = "delete from member_search where member_id between ? and ?";
+    private static final String INSERT_FROM_MEMBER =
+            "insert into member_search (member_id, username, age, team_id, team_name) " +
+            "select m.member_id, m.username, m.age, m.team_id, t.name from member m left join team t on t.id = m.team_id";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberSearchProjection(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** 시작할 때 member 테이블에서 다시 만든다 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        long start = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> rebuild());
+        log.info("member_search 재생성 rows={}, elapsed={}ms", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** 현재 트랜잭션에서 전체를 다시 만든다 */
+    public int rebuild() {
+        pending().clear();
+        jdbcTemplate.update("delete from member_search");
+        return jdbcTemplate.update(INSERT_FROM_MEMBER);
+    }
+
+    /** 읽기 모델을 조회하기 전에 - 아직 flush 안 된 변경과 모아 둔 변경을 반영 */
+    public void sync() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) return;
+        em.flush();
+        applyPending();
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED:
+            case DELETED:
+                Map<Long, MemberChangedEvent> pending = pending();
+                pending.remove(event.getMemberId()); //순서를 마지막 변경 기준으로
+                pending.put(event.getMemberId(), event);
+                if (pending.size() >= APPLY_BATCH_SIZE || !TransactionSynchronizationManager.isSynchronizationActive())
+                    apply(pending);
+                break;
+            case BULK:
+                applyPending();
+                if (event.getFromId() == null) {
+                    rebuild();
+                } else {
+                    jdbcTemplate.update(DELETE_RANGE, event.getFromId(), event.getToId());
+                    jdbcTemplate.update(INSERT_FROM_MEMBER + " where m.member_id between ? and ?",
+                            event.getFromId(), event.getToId());
+                }
+                break;
+        }
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        applyPending();
+        if (event.getType() == TeamChangedEvent.Type.SAVED) {
+            jdbcTemplate.update("update member_search set team_name = ? where team_id = ?", event.getName(), event.getTeamId());
+        } else {
+            jdbcTemplate.update("update member_search set team_id = null, team_name = null where team_id = ?", event.getTeamId());
+        }
+    }
+
+    private void applyPending() {
+        apply(pending());
+    }
+
+    private void apply(Map<Long, MemberChangedEvent> pending) {
+        if (pending.isEmpty()) return;
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (MemberChangedEvent event : pending.values()) {
+            if (event.getType() == MemberChangedEvent.Type.DELETED) {
+                deletes.add(new Object[]{event.getMemberId()});
+            } else {
+                upserts.add(new Object[]{event.getMemberId(), event.getUsername(), event.getAge(),
+                        event.getTeamId(), event.getTeamId()});
+            }
+        }
+        pending.clear();
+        if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE, deletes);
+        if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(UPSERT, upserts);
+    }
+
+    /** 트랜잭션마다 하나 - 커밋 직전에 flush 해서 남은 이벤트까지 받은 뒤 반영한다 (트랜잭션 밖이면 바로 반영할 빈 맵) */
+    @SuppressWarnings("unchecked")
+    private Map<Long, MemberChangedEvent> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return new LinkedHashMap<>();
+
+        Map<Long, MemberChangedEvent> pending = (Map<Long, MemberChangedEvent>) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (pending == null) {
+            pending = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    em.flush();
+                    applyPending();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+                }
+            });
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberField;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMemberSearch.memberSearch;
+
+/**
+ * member_search 읽기 모델 검색 - MemberRepositoryImpl의 search, searchPageComplex와 같은 결과를 조인 없이 한 테이블에서
+ * 같은 트랜잭션에서 바꾼 회원도 보이도록 조회 전에 MemberSearchProjection.sync()
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberSearchQueryRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final MemberSearchProjection projection;
+    private final MemberCountCache countCache;
+
+    public MemberSearchQueryRepository(EntityManager em, MemberSearchProjection projection, MemberCountCache countCache) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.projection = projection;
+        this.countCache = countCache;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        projection.sync();
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        memberSearch.memberId,
+                        memberSearch.username,
+                        memberSearch.age,
+                        memberSearch.teamId,
+                        memberSearch.teamName))
+                .from(memberSearch)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .fetch();
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        projection.sync();
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        memberSearch.memberId,
+                        memberSearch.username,
+                        memberSearch.age,
+                        memberSearch.teamId,
+                        memberSearch.teamName))
+                .from(memberSearch)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(orderBy(pageable))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        //조건이 같으면 결과 수도 같으므로 searchPageComplex와 count 캐시를 같이 쓴다
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrLoad(condition, () -> queryFactory
+                        .select(memberSearch.count())
+                        .from(memberSearch)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        )
+                        .fetchOne()));
+    }
+
+    /** MemberRepositoryImpl과 같은 정렬 규칙 (모르는 속성은 무시) - 정렬이 없어도 member_id 순으로 고정해서 페이지가 흔들리지 않게 */
+    private OrderSpecifier<?>[] orderBy(Pageable pageable) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean byMemberId = false;
+        for (Sort.Order order : pageable.getSort()) {
+            MemberField field = MemberField.ofProperty(order.getProperty()).orElse(null);
+            if (field == null) continue;
+            ComparableExpressionBase<?> path = sortPath(field);
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+            byMemberId |= field == MemberField.MEMBER_ID;
+        }
+        if (!byMemberId) orders.add(memberSearch.memberId.asc());
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    private static ComparableExpressionBase<?> sortPath(MemberField field) {
+        switch (field) {
+            case MEMBER_ID: return memberSearch.memberId;
+            case USERNAME: return memberSearch.username;
+            case AGE: return memberSearch.age;
+            case TEAM_ID: return memberSearch.teamId;
+            case TEAM_NAME: return memberSearch.teamName;
+            default: throw new IllegalArgumentException("지원하지 않는 필드입니다: " + field);
+        }
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? memberSearch.age.loe(ageLoe) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? memberSearch.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? memberSearch.teamName.eq(teamName) : null;
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? memberSearch.username.eq(username) : null;
+    }
+}
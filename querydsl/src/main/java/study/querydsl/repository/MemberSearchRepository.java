@@ -0,0 +1,19 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+/**
+ * 회원 검색 - DB(MemberRepositoryImpl)와 메모리 컬럼 저장소(MemberColumnarRepository)가 같은 계약으로 구현한다
+ * 같은 조건, 같은 Pageable이면 같은 결과 (정렬 규칙도 같다)
+ */
+public interface MemberSearchRepository {
+
+    List<MemberTeamDto> search(MemberSearchCondition condition);
+
+    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+}
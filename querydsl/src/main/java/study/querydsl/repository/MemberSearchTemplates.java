@@ -0,0 +1,78 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition의 조건 조합(2^4 = 16개)마다 JPQL을 애플리케이션 시작 시 한 번 만들어서 named query로 등록해 둔다.
+ * 요청마다 Querydsl 표현식 생성, JPQL 직렬화, HQL 파싱 없이 파라미터만 바인딩한다.
+ */
+@Component
+public class MemberSearchTemplates {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int SHAPES = 1 << 4;
+
+    private static final String QUERY_NAME_PREFIX = "Member.search.";
+
+    public MemberSearchTemplates(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int shape = 0; shape < SHAPES; shape++) {
+                //createQuery 시점에 HQL이 파싱되어 쿼리 플랜 캐시에 올라간다
+                emf.addNamedQuery(queryName(shape), em.createQuery(jpql(shape), MemberTeamDto.class));
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    /** 조건에 맞는 템플릿을 꺼내서 값만 바인딩 */
+    public TypedQuery<MemberTeamDto> create(EntityManager em, MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        TypedQuery<MemberTeamDto> query = em.createNamedQuery(queryName(shape), MemberTeamDto.class);
+        if ((shape & USERNAME) != 0) query.setParameter("username", condition.getUsername());
+        if ((shape & TEAM_NAME) != 0) query.setParameter("teamName", condition.getTeamName());
+        if ((shape & AGE_GOE) != 0) query.setParameter("ageGoe", condition.getAgeGoe());
+        if ((shape & AGE_LOE) != 0) query.setParameter("ageLoe", condition.getAgeLoe());
+        return query;
+    }
+
+    /** 어떤 조건이 들어왔는지 비트로 표현 - usernameEq 등과 같은 기준(빈 문자열은 조건 없음) */
+    public static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) shape |= USERNAME;
+        if (hasText(condition.getTeamName())) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        return shape;
+    }
+
+    static String jpql(int shape) {
+        List<String> where = new ArrayList<>();
+        if ((shape & USERNAME) != 0) where.add("m.username = :username");
+        if ((shape & TEAM_NAME) != 0) where.add("m.team.id in (select tn.id from Team tn where tn.name = :teamName)"); //MemberRepositoryImpl.teamNameEq 참고
+        if ((shape & AGE_GOE) != 0) where.add("m.age >= :ageGoe");
+        if ((shape & AGE_LOE) != 0) where.add("m.age <= :ageLoe");
+
+        String jpql = "select new study.querydsl.dto.MemberTeamDto(m.id, m.username, m.age, t.id, t.name)" +
+                " from Member m left join m.team t";
+        return where.isEmpty() ? jpql : jpql + " where " + String.join(" and ", where);
+    }
+
+    private static String queryName(int shape) {
+        return QUERY_NAME_PREFIX + shape;
+    }
+}
@@ -0,0 +1,153 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.InvalidSearchRequestException;
+import study.querydsl.dto.UsernameIndexStatsDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.metrics.LatencyHistogram;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * username 부분 검색(prefix, contains)용 메모리 인덱스
+ * 시작할 때 member 테이블에서 만들고, 이후에는 커밋된 회원 변경만 반영한다 (롤백된 변경이 남지 않도록).
+ * - 결과는 id 순으로 maxMatches 건까지만 - 그 이상 걸리는 keyword는 전체 개수도 maxMatches로 잘린다
+ * - rebuild 중에 들어온 변경은 기록해 뒀다가 새 인덱스로 바꿀 때 다시 적용한다
+ */
+@Slf4j
+@Component
+public class MemberUsernameIndex {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private volatile UsernameIndex index = new UsernameIndex();
+    private final Object changeLock = new Object();
+    private List<Consumer<UsernameIndex>> changesDuringRebuild; //changeLock으로 보호, rebuild 중이 아니면 null
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder lookups = new LongAdder();
+    private volatile long buildMillis;
+    private final int maxMatches;
+
+    public MemberUsernameIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${member.username-index.max-matches:10000}") int maxMatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxMatches = maxMatches;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        //커밋 후 이벤트에서 읽으므로 끝난 트랜잭션에 참여하지 않게 새로 연다
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        UsernameIndex fresh = new UsernameIndex(); //다 만든 뒤에 바꿔서 조회 중에 빈 인덱스가 보이지 않게
+        synchronized (changeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            readTransaction.executeWithoutResult(status -> load(fresh::put, "select member_id, username from member"));
+            synchronized (changeLock) {
+                //읽는 동안 커밋된 변경 - 이미 읽힌 것이어도 같은 값을 다시 넣을 뿐이다
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                index = fresh;
+            }
+        } finally {
+            synchronized (changeLock) {
+                changesDuringRebuild = null;
+            }
+        }
+        buildMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("username 인덱스 생성 members={}, grams={}, ~{}KB, elapsed={}ms",
+                fresh.size(), fresh.grams(), fresh.estimatedBytes() / 1024, buildMillis);
+    }
+
+    /** 조건에 맞는 member id (오름차순, 최대 maxMatches 건) */
+    public long[] findIds(UsernameMatch match, String keyword) {
+        if (!hasText(keyword)) throw new InvalidSearchRequestException("keyword가 비어 있습니다.");
+        long start = System.nanoTime();
+        try {
+            return index.find(match, keyword.trim(), maxMatches);
+        } finally {
+            latency.record(System.nanoTime() - start);
+            lookups.increment();
+        }
+    }
+
+    public UsernameIndexStatsDto stats() {
+        UsernameIndex index = this.index;
+        return new UsernameIndexStatsDto(index.size(), index.distinctUsernames(), index.grams(), index.postings(),
+                index.estimatedBytes(), buildMillis, lookups.sum(),
+                latency.percentile(0.5) / 1000, latency.percentile(0.99) / 1000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED:
+                apply(current -> current.put(event.getMemberId(), event.getUsername()));
+                break;
+            case DELETED:
+                apply(current -> current.remove(event.getMemberId()));
+                break;
+            case BULK:
+                if (event.getFromId() == null) {
+                    rebuild();
+                } else {
+                    //벌크 연산으로 지워진 회원이 있을 수 있으므로 구간을 비우고 다시 읽은 값으로 채운다
+                    Map<Long, String> rows = new LinkedHashMap<>();
+                    readTransaction.executeWithoutResult(status -> load(rows::put,
+                            "select member_id, username from member where member_id between ? and ?",
+                            event.getFromId(), event.getToId()));
+                    apply(current -> {
+                        for (long id = event.getFromId(); id <= event.getToId(); id++) current.remove(id);
+                        rows.forEach(current::put);
+                    });
+                }
+                break;
+        }
+    }
+
+    /** 지금 인덱스에 반영하고, rebuild 중이면 새 인덱스에도 다시 적용하도록 기록 */
+    private void apply(Consumer<UsernameIndex> change) {
+        synchronized (changeLock) {
+            change.accept(index);
+            if (changesDuringRebuild != null) changesDuringRebuild.add(change);
+        }
+    }
+
+    private void load(BiConsumer<Long, String> target, String sql, Object... args) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+            return statement;
+        }, (RowCallbackHandler) rs -> target.accept(rs.getLong(1), rs.getString(2)));
+    }
+}
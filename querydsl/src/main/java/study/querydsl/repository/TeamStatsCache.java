@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.CacheStatsDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 팀 통계 캐시 - 키는 나이 범위
+ * refreshAfter가 지난 항목은 기존 값을 돌려주면서 뒤에서 다시 집계하고(refresh-ahead), expireAfter가 지나면 버린다.
+ * 회원/팀 변경이 커밋되면 모든 항목을 뒤에서 다시 집계한다 - 집계 중에는 이전 값을 그대로 쓴다.
+ * 변경이 몰려도(CSV 가져오기, 벌크 연산) 재집계는 예약된 것 하나만 - 예약된 재집계가 시작되기 전의 변경은 모두 그 재집계에 반영된다.
+ */
+@Slf4j
+@Component
+public class TeamStatsCache {
+
+    private final LoadingCache<MemberSearchCondition, List<TeamStatsDto>> cache;
+    private final Function<MemberSearchCondition, List<TeamStatsDto>> loader;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    @Autowired
+    public TeamStatsCache(TeamStatsRepository teamStatsRepository,
+                          @Qualifier("teamStatsExecutor") Executor refreshExecutor,
+                          @Value("${member.team-stats.refresh-after:5s}") Duration refreshAfter,
+                          @Value("${member.team-stats.expire-after:1m}") Duration expireAfter,
+                          @Value("${member.team-stats.max-size:100}") long maxSize) {
+        this(teamStatsRepository::stats, refreshExecutor, refreshAfter, expireAfter, maxSize);
+    }
+
+    TeamStatsCache(Function<MemberSearchCondition, List<TeamStatsDto>> loader, Executor refreshExecutor,
+                   Duration refreshAfter, Duration expireAfter, long maxSize) {
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(expireAfter)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(loader::apply);
+    }
+
+    public List<TeamStatsDto> get(MemberSearchCondition condition) {
+        return cache.get(key(condition));
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        refreshAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeamChanged(TeamChangedEvent event) {
+        refreshAll();
+    }
+
+    /** 이미 예약된 재집계가 있으면 그대로 둔다 - Caffeine 2.x의 refresh(key)는 호출마다 다시 집계하므로 직접 합친다 */
+    private void refreshAll() {
+        if (!refreshPending.compareAndSet(false, true)) return;
+        try {
+            refreshExecutor.execute(this::reloadAll);
+        } catch (RejectedExecutionException e) {
+            refreshPending.set(false);
+            cache.invalidateAll(); //다음 조회에서 다시 집계
+        }
+    }
+
+    private void reloadAll() {
+        refreshPending.set(false); //집계 중에 들어온 변경은 다음 재집계로
+        for (MemberSearchCondition key : new ArrayList<>(cache.asMap().keySet())) {
+            try {
+                cache.put(key, loader.apply(key));
+            } catch (RuntimeException e) {
+                log.warn("팀 통계 재집계 실패 key={}", key, e);
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    /** 나이 범위만 남긴다 - username, teamName이 달라도 같은 통계 */
+    private static MemberSearchCondition key(MemberSearchCondition condition) {
+        MemberSearchCondition key = new MemberSearchCondition();
+        key.setAgeGoe(condition.getAgeGoe());
+        key.setAgeLoe(condition.getAgeLoe());
+        return key;
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.QTeamStatsDto;
+import study.querydsl.dto.TeamStatsDto;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+@Transactional(readOnly = true)
+public class TeamStatsRepository {
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamStatsRepository(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /** 팀 이름별 회원 나이 통계 - 조건은 나이 범위(ageGoe, ageLoe)만 본다, 팀이 없는 회원은 제외 */
+    public List<TeamStatsDto> stats(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QTeamStatsDto(
+                        team.name,
+                        member.count(),
+                        member.age.avg(),
+                        member.age.max(),
+                        member.age.min()))
+                .from(member)
+                .join(member.team, team)
+                .where(
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .fetch();
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+}
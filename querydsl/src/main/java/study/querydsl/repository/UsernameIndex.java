@@ -0,0 +1,214 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.UsernameMatch;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * username -> member id 메모리 인덱스 (소문자 기준)
+ * - prefix: 정렬된 username 맵의 구간 조회
+ * - contains: 3글자(trigram) 마다 정렬된 member id 목록을 두고, 가장 짧은 목록을 id 순으로 훑으면서 실제 포함 여부를 확인
+ *   keyword가 3글자보다 짧으면 전체를 id 순으로 훑는다
+ * - 결과는 id 순으로 limit 건에서 멈춘다 - 많이 걸리는 keyword라도 전부 모아서 정렬하지 않는다
+ */
+class UsernameIndex {
+
+    static final int GRAM = 3;
+
+    //대략적인 객체 크기 (64bit, compressed oops) - 메모리 추정용
+    private static final int MAP_ENTRY_BYTES = 40;
+    private static final int SET_BYTES = 64;
+    private static final int LONG_BYTES = 16;
+    private static final int STRING_BYTES = 40;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, String> usernames = new TreeMap<>();
+    private final TreeMap<String, Set<Long>> idsByUsername = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> idsByGram = new HashMap<>();
+    private long usernameChars;
+    private long postings;
+
+    void put(long id, String username) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (username == null) return;
+
+            String key = normalize(username);
+            usernames.put(id, key);
+            usernameChars += key.length();
+            idsByUsername.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            for (String gram : grams(key)) {
+                if (idsByGram.computeIfAbsent(gram, g -> new TreeSet<>()).add(id)) postings++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 조건에 맞는 member id (오름차순) */
+    long[] find(UsernameMatch match, String keyword) {
+        return find(match, keyword, Integer.MAX_VALUE);
+    }
+
+    /** 조건에 맞는 member id 중 작은 것부터 limit 건 (오름차순) */
+    long[] find(UsernameMatch match, String keyword, int limit) {
+        String key = normalize(keyword);
+        lock.readLock().lock();
+        try {
+            if (match == UsernameMatch.PREFIX) {
+                long[] ids = findPrefix(key, limit);
+                if (ids != null) return ids;
+            }
+            return scan(match, key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return usernames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long distinctUsernames() {
+        lock.readLock().lock();
+        try {
+            return idsByUsername.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long grams() {
+        lock.readLock().lock();
+        try {
+            return idsByGram.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long postings() {
+        lock.readLock().lock();
+        try {
+            return postings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 맵 엔트리, Set, Long 박싱까지 센 대략적인 힙 사용량 */
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long members = usernames.size();
+            long idEntry = MAP_ENTRY_BYTES + LONG_BYTES;
+            return members * (idEntry + STRING_BYTES) + usernameChars                       //id -> username
+                    + idsByUsername.size() * (MAP_ENTRY_BYTES + SET_BYTES) + members * idEntry //username -> ids
+                    + idsByGram.size() * (MAP_ENTRY_BYTES + SET_BYTES + STRING_BYTES + GRAM)  //gram -> ids
+                    + postings * idEntry;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** prefix에 걸리는 username 구간이 limit 건 이하일 때만 모아서 정렬 - 넘으면 null (id 순으로 훑는다) */
+    private long[] findPrefix(String prefix, int limit) {
+        NavigableMap<String, Set<Long>> range = idsByUsername.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        long[] ids = new long[16];
+        int count = 0;
+        for (Set<Long> usernameIds : range.values()) {
+            for (Long id : usernameIds) {
+                if (count == limit) return null;
+                if (count == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+                ids[count++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * 후보를 id 순으로 훑으면서 실제 username을 확인하고 limit 건에서 멈춘다
+     * keyword의 gram은 일치하는 username에 모두 들어 있으므로 가장 짧은 posting 목록 하나만 훑으면 된다
+     */
+    private long[] scan(UsernameMatch match, String keyword, int limit) {
+        NavigableSet<Long> smallest = null;
+        if (keyword.length() >= GRAM) {
+            for (String gram : grams(keyword)) {
+                NavigableSet<Long> posting = idsByGram.get(gram);
+                if (posting == null) return new long[0];
+                if (smallest == null || posting.size() < smallest.size()) smallest = posting;
+            }
+        }
+
+        long[] ids = new long[Math.min(limit, 16)];
+        int count = 0;
+        Iterable<Long> candidates = smallest != null ? smallest : usernames.keySet();
+        for (Long id : candidates) {
+            if (count == limit) break;
+            String username = usernames.get(id);
+            boolean matched = match == UsernameMatch.PREFIX ? username.startsWith(keyword) : username.contains(keyword);
+            if (!matched) continue;
+            if (count == ids.length) ids = Arrays.copyOf(ids, (int) Math.min(limit, ids.length * 2L));
+            ids[count++] = id;
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private void removeInternal(long id) {
+        String old = usernames.remove(id);
+        if (old == null) return;
+
+        usernameChars -= old.length();
+        removeFrom(idsByUsername, old, id);
+        for (String gram : grams(old)) {
+            if (removeFrom(idsByGram, gram, id)) postings--;
+        }
+    }
+
+    private static boolean removeFrom(Map<String, ? extends Set<Long>> map, String key, long id) {
+        Set<Long> ids = map.get(key);
+        if (ids == null || !ids.remove(id)) return false;
+        if (ids.isEmpty()) map.remove(key);
+        return true;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,33 @@
+package study.querydsl.seed;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/** 샘플 회원 나이 분포 */
+public enum AgeDistribution {
+
+    /** index 순서대로 ageMin ~ ageMax 반복 (기존 InitMember와 같은 데이터) */
+    SEQUENTIAL {
+        @Override
+        int nextAge(long index, int ageMin, int ageMax) {
+            return ageMin + (int) (index % (ageMax - ageMin + 1));
+        }
+    },
+    UNIFORM {
+        @Override
+        int nextAge(long index, int ageMin, int ageMax) {
+            return ThreadLocalRandom.current().nextInt(ageMin, ageMax + 1);
+        }
+    },
+    /** 가운데가 평균, 범위의 1/6이 표준편차인 정규분포 (범위 밖은 잘라냄) */
+    NORMAL {
+        @Override
+        int nextAge(long index, int ageMin, int ageMax) {
+            double mean = (ageMin + ageMax) / 2.0;
+            double stdDev = (ageMax - ageMin) / 6.0;
+            long age = Math.round(mean + ThreadLocalRandom.current().nextGaussian() * stdDev);
+            return (int) Math.max(ageMin, Math.min(ageMax, age));
+        }
+    };
+
+    abstract int nextAge(long index, int ageMin, int ageMax);
+}
@@ -0,0 +1,177 @@
+package study.querydsl.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkLoad;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.metrics.StatementGuard;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 대량 샘플 데이터 생성
+ * - 시퀀스를 allocationSize 단위로 미리 받아오고(pooled) JDBC batch insert
+ * - batchSize 마다 flush/clear 해서 영속성 컨텍스트가 커지지 않게
+ * - commitInterval 마다 커밋, 필요하면 여러 스레드로 나눠서 넣는다
+ * - row마다 회원 이벤트를 내지 않고 청크마다 BULK(id 구간) 이벤트 한 번 - 읽기 모델/캐시/인덱스는 구간 단위로 갱신
+ * - SQL이 많은 게 정상이므로 트랜잭션당 SQL 한도(StatementGuard)에서 뺀다
+ */
+@Slf4j
+@Component
+public class MemberSeeder {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final SeedProperties defaultProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatementGuard statementGuard;
+
+    public MemberSeeder(SeedProperties defaultProperties, PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher, StatementGuard statementGuard) {
+        this.defaultProperties = defaultProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.statementGuard = statementGuard;
+    }
+
+    /** yml 설정대로 생성 */
+    public SeedReport seed() {
+        return seed(defaultProperties);
+    }
+
+    public SeedReport seed(SeedProperties properties) {
+        validate(properties);
+        long start = System.nanoTime();
+
+        List<Long> teamIds = transactionTemplate.execute(status -> persistTeams(properties));
+        long total = properties.getTotalMembers();
+
+        int threads = (int) Math.min(properties.getThreads(), Math.max(1, total));
+        if (threads == 1) {
+            persistMembers(properties, teamIds, 0, total);
+        } else {
+            persistMembersParallel(properties, teamIds, total, threads);
+        }
+
+        SeedReport report = new SeedReport(teamIds.size(), total, Duration.ofNanos(System.nanoTime() - start));
+        log.info("seed 완료 teams={}, members={}, elapsed={}ms, {} rows/sec",
+                report.getTeams(), report.getMembers(), report.getElapsed().toMillis(),
+                String.format("%.0f", report.getRowsPerSecond()));
+        return report;
+    }
+
+    private List<Long> persistTeams(SeedProperties properties) {
+        statementGuard.skipTransactionBudget();
+        List<Long> teamIds = new ArrayList<>(properties.getTeams());
+        for (int i = 0; i < properties.getTeams(); i++) {
+            Team team = new Team("team" + teamSuffix(i));
+            em.persist(team);
+            teamIds.add(team.getId());
+        }
+        return teamIds;
+    }
+
+    /** 구간을 스레드 수만큼 나눠서 동시에 넣는다 - 스레드마다 트랜잭션/커넥션이 따로 잡힌다 */
+    private void persistMembersParallel(SeedProperties properties, List<Long> teamIds, long total, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long sliceSize = (total + threads - 1) / threads;
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = 0; from < total; from += sliceSize) {
+                long sliceFrom = from;
+                long sliceTo = Math.min(total, from + sliceSize);
+                futures.add(executor.submit(() -> persistMembers(properties, teamIds, sliceFrom, sliceTo)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("seed 중단", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("seed 실패", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** [from, to) 구간의 회원을 commitInterval 단위 트랜잭션으로 넣는다 */
+    private void persistMembers(SeedProperties properties, List<Long> teamIds, long from, long to) {
+        for (long chunkFrom = from; chunkFrom < to; chunkFrom += properties.getCommitInterval()) {
+            long chunkTo = Math.min(to, chunkFrom + properties.getCommitInterval());
+            long chunkStart = chunkFrom;
+            transactionTemplate.executeWithoutResult(status -> {
+                statementGuard.skipTransactionBudget();
+                long[] ids = BulkLoad.call(() -> persistMemberChunk(properties, teamIds, chunkStart, chunkTo));
+                if (ids != null) eventPublisher.publishEvent(MemberChangedEvent.bulk(ids[0], ids[1]));
+            });
+        }
+    }
+
+    /** 넣은 회원의 {최소 id, 최대 id} - 없으면 null */
+    private long[] persistMemberChunk(SeedProperties properties, List<Long> teamIds, long from, long to) {
+        Team[] teams = teamReferences(teamIds);
+        long[] ids = null;
+        for (long i = from; i < to; i++) {
+            int age = properties.getAgeDistribution().nextAge(i, properties.getAgeMin(), properties.getAgeMax());
+            Member member = new Member("member" + i, age);
+            //생성자로 팀을 넣으면 team.members 컬렉션이 로딩되므로 연관관계 주인 쪽만 세팅
+            member.setTeam(teams[(int) (i % teams.length)]);
+            em.persist(member);
+            ids = widen(ids, member.getId());
+
+            if ((i - from + 1) % properties.getBatchSize() == 0) {
+                em.flush();
+                em.clear();
+                teams = teamReferences(teamIds); //clear로 준영속이 된 프록시는 다시 얻는다
+            }
+        }
+        em.flush();
+        em.clear();
+        return ids;
+    }
+
+    /** 스레드마다 시퀀스 블록을 따로 받으므로 id가 연속이라는 보장은 없다 - 최소/최대로 잡는다 */
+    private static long[] widen(long[] ids, long id) {
+        if (ids == null) return new long[]{id, id};
+        ids[0] = Math.min(ids[0], id);
+        ids[1] = Math.max(ids[1], id);
+        return ids;
+    }
+
+    private Team[] teamReferences(List<Long> teamIds) {
+        Team[] teams = new Team[teamIds.size()];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = em.getReference(Team.class, teamIds.get(i));
+        }
+        return teams;
+    }
+
+    /** 팀 2개면 teamA, teamB 처럼 기존 이름을 유지하고 그 이상은 번호로 */
+    private String teamSuffix(int index) {
+        return index < 26 ? String.valueOf((char) ('A' + index)) : String.valueOf(index);
+    }
+
+    private void validate(SeedProperties properties) {
+        if (properties.getTeams() < 1) throw new IllegalArgumentException("teams는 1 이상이어야 합니다.");
+        if (properties.getMembersPerTeam() < 0) throw new IllegalArgumentException("membersPerTeam은 0 이상이어야 합니다.");
+        if (properties.getAgeMin() > properties.getAgeMax()) throw new IllegalArgumentException("ageMin이 ageMax보다 큽니다.");
+        if (properties.getBatchSize() < 1 || properties.getCommitInterval() < 1 || properties.getThreads() < 1)
+            throw new IllegalArgumentException("batchSize, commitInterval, threads는 1 이상이어야 합니다.");
+    }
+}
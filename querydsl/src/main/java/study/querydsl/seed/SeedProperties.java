@@ -0,0 +1,31 @@
+package study.querydsl.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** 샘플 데이터 생성 설정 (yml의 seed.*) */
+@Component
+@ConfigurationProperties(prefix = "seed")
+@Getter @Setter
+public class SeedProperties {
+
+    private int teams = 2;
+    private int membersPerTeam = 50;
+
+    private AgeDistribution ageDistribution = AgeDistribution.SEQUENTIAL;
+    private int ageMin = 0;
+    private int ageMax = 99;
+
+    /** flush/clear 간격 - hibernate.jdbc.batch_size와 맞춘다 */
+    private int batchSize = 1000;
+    /** 한 트랜잭션에서 넣는 row 수 */
+    private int commitInterval = 50_000;
+    /** 회원을 나눠서 넣는 스레드 수 */
+    private int threads = 1;
+
+    public long getTotalMembers() {
+        return (long) teams * membersPerTeam;
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.seed;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class SeedReport {
+    private final int teams;
+    private final long members;
+    private final Duration elapsed;
+    private final double rowsPerSecond;
+
+    public SeedReport(int teams, long members, Duration elapsed) {
+        this.teams = teams;
+        this.members = members;
+        this.elapsed = elapsed;
+        long millis = Math.max(1, elapsed.toMillis());
+        this.rowsPerSecond = (teams + members) * 1000.0 / millis;
+    }
+}
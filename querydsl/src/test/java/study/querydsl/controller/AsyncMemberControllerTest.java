@@ -0,0 +1,128 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 조회가 dbQueryExecutor 스레드에서 돌기 때문에 테스트 트랜잭션 없이 커밋된 데이터로 확인한다.
+ * 스레드 1개, 대기열 1개로 줄여서 가득 찬 상황을 쉽게 만든다.
+ */
+@SpringBootTest(properties = {"member.async.pool-size=1", "member.async.queue-capacity=1"})
+@AutoConfigureMockMvc
+class AsyncMemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired @Qualifier("dbQueryExecutor") ThreadPoolTaskExecutor dbQueryExecutor;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("asyncTeam");
+            em.persist(team);
+            for (int i = 1; i <= 3; i++) {
+                em.persist(new Member("async" + i, i * 10, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'async%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'asyncTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchMemberV1() throws Exception {
+        MvcResult result = mockMvc.perform(get("/async/v1/members").param("teamName", "asyncTeam").param("ageGoe", "20"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username", contains("async2", "async3")));
+    }
+
+    @Test
+    public void searchMemberV2() throws Exception {
+        MvcResult result = mockMvc.perform(get("/async/v2/members").param("teamName", "asyncTeam")
+                        .param("page", "0").param("size", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", contains("async1", "async2")))
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    @Test
+    public void searchMemberV3() throws Exception {
+        MvcResult result = mockMvc.perform(get("/async/v3/members").param("teamName", "asyncTeam")
+                        .param("page", "1").param("size", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", contains("async3")))
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    /** 스레드와 대기열이 모두 차 있으면 비동기로 넘어가지 않고 바로 503 + Retry-After */
+    @Test
+    public void rejectedWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        dbQueryExecutor.execute(blocker); //실행 중
+        started.await(5, TimeUnit.SECONDS);
+        dbQueryExecutor.execute(blocker); //대기열
+
+        try {
+            mockMvc.perform(get("/async/v1/members").param("teamName", "asyncTeam"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Accept 헤더에 따라 JSON / Smile / CBOR - 디코딩하면 모두 같은 값 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerEncodingTest {
+
+    static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+
+    Member member1;
+    Member member2;
+
+    @BeforeEach
+    public void before() {
+        Team team = new Team("encodingTeam");
+        em.persist(team);
+        member1 = new Member("encoding1", 10, team);
+        member2 = new Member("encoding2", 20, team);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+    }
+
+    @Test
+    public void jsonUnchanged() throws Exception {
+        String expected = "[" + json(member1) + "," + json(member2) + "]";
+
+        mockMvc.perform(get("/v1/members").param("teamName", "encodingTeam"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(expected));
+
+        mockMvc.perform(get("/v1/members").param("teamName", "encodingTeam").accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    public void cbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/v1/members").param("teamName", "encodingTeam").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(body)).isEqualTo(jsonTree());
+    }
+
+    @Test
+    public void smileWithSharedValues() throws Exception {
+        byte[] body = mockMvc.perform(get("/v1/members").param("teamName", "encodingTeam").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //헤더 ":)\n" 다음 바이트에 공유 문자열 값 사용 여부 - WebConfig의 Smile 설정이 쓰였는지
+        assertThat(body[0]).isEqualTo(SmileConstants.HEADER_BYTE_1);
+        assertThat(body[3] & SmileConstants.HEADER_BIT_HAS_SHARED_STRING_VALUES).isNotZero();
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(body)).isEqualTo(jsonTree());
+    }
+
+    private com.fasterxml.jackson.databind.JsonNode jsonTree() throws Exception {
+        String json = mockMvc.perform(get("/v1/members").param("teamName", "encodingTeam"))
+                .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(json);
+    }
+
+    private String json(Member member) {
+        return String.format("{\"memberId\":%d,\"username\":\"%s\",\"age\":%d,\"teamId\":%d,\"teamName\":\"%s\"}",
+                member.getId(), member.getUsername(), member.getAge(), member.getTeam().getId(), member.getTeam().getName());
+    }
+}
@@ -0,0 +1,67 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** 잘못된 검색 파라미터는 500이 아니라 400 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void invalidCursor() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/v4/members").param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(2000));
+    }
+
+    @Test
+    public void unknownField() throws Exception {
+        mockMvc.perform(get("/v1/members").param("fields", "username,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v3/members").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/v1/members").param("fields", "username"))
+                .andExpect(status().isOk());
+    }
+
+    /** 모르는 정렬 속성은 400이 아니라 무시 */
+    @Test
+    public void unknownSort() throws Exception {
+        for (String version : new String[]{"/v2/members", "/v3/members", "/v6/members", "/v8/members"}) {
+            mockMvc.perform(get(version).param("sort", "password,desc"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get(version).param("sort", "teamName,desc"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void countCapLimit() throws Exception {
+        mockMvc.perform(get("/v3/members/counted").param("countCap", "100000000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v3/members/counted").param("countCap", "100000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void blankUsernameKeyword() throws Exception {
+        mockMvc.perform(get("/v7/members").param("keyword", " "))
+                .andExpect(status().isBadRequest());
+    }
+}
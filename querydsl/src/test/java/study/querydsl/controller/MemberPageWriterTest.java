@@ -0,0 +1,64 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberRowHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class MemberPageWriterTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    MemberRepository memberRepository = mock(MemberRepository.class);
+    MemberPageWriter writer = new MemberPageWriter(memberRepository, objectMapper);
+
+    @Test
+    public void write() throws Exception {
+        given(memberRepository.searchPageRows(any(), any(), any())).willAnswer(invocation -> {
+            MemberRowHandler handler = invocation.getArgument(2);
+            handler.onRow(3L, "member3", 30, 1L, "teamA");
+            handler.onRow(4L, "member4", 40, null, null);
+            return 5L;
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out, new MemberSearchCondition(), PageRequest.of(1, 2));
+
+        JsonNode page = objectMapper.readTree(out.toByteArray());
+        assertThat(page.get("columns").toString()).isEqualTo("[\"memberId\",\"username\",\"age\",\"teamId\",\"teamName\"]");
+        assertThat(page.get("content").toString()).isEqualTo("[[3,\"member3\",30,1,\"teamA\"],[4,\"member4\",40,null,null]]");
+        assertThat(page.get("page").asInt()).isEqualTo(1);
+        assertThat(page.get("size").asInt()).isEqualTo(2);
+        assertThat(page.get("totalElements").asLong()).isEqualTo(5);
+        assertThat(page.get("totalPages").asLong()).isEqualTo(3);
+    }
+
+    /** 조회 중에 실패하면 잘린 JSON을 정상처럼 닫지 않는다 */
+    @Test
+    public void failureLeavesUnterminatedBody() {
+        given(memberRepository.searchPageRows(any(), any(), any())).willAnswer(invocation -> {
+            MemberRowHandler handler = invocation.getArgument(2);
+            handler.onRow(1L, "member1", 10, 1L, "teamA");
+            throw new IllegalStateException("count 실패");
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalStateException.class, () -> writer.write(out, new MemberSearchCondition(), PageRequest.of(0, 2)));
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).contains("[1,\"member1\",10,1,\"teamA\"]");
+        assertThrows(JsonProcessingException.class, () -> objectMapper.readTree(body));
+    }
+}
@@ -0,0 +1,115 @@
+package study.querydsl.importer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberChangedEvent;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** 다른 테스트가 남긴 데이터와 섞이지 않도록 이 테스트에서만 쓰는 팀/회원 이름을 쓴다 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@RecordApplicationEvents
+class MemberCsvImporterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired MemberCsvImporter memberCsvImporter;
+    @Autowired MockMvc mockMvc;
+    @Autowired ApplicationEvents events;
+
+    @Test
+    public void importCsv() throws Exception {
+        em.persist(new Team("importTeamA"));
+        em.flush();
+
+        String csv = "username,age,teamName\n" +
+                "import1,10,importTeamA\n" +
+                "import2,20,importTeamB\n" +
+                "\"import,3\",30,importTeamB\n" +
+                "import4,40\n" +
+                "import5,abc,importTeamA\n" +
+                ",50,importTeamA\n" +
+                "\n" +
+                "import6,60,importTeamA\n";
+
+        CsvImportReport report = memberCsvImporter.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 2); //청크가 여러 번 커밋되도록
+
+        assertThat(report.getRowsRead()).isEqualTo(7);
+        assertThat(report.getImported()).isEqualTo(5);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getTeamsCreated()).isEqualTo(1);
+        assertThat(report.getRejectedRows()).extracting("line").containsExactly(6L, 7L);
+
+        List<Member> members = em.createQuery("select m from Member m left join fetch m.team" +
+                        " where m.username like 'import%' order by m.id", Member.class)
+                .getResultList();
+        assertThat(members).extracting("username").containsExactly("import1", "import2", "import,3", "import4", "import6");
+        assertThat(members.get(1).getTeam().getName()).isEqualTo("importTeamB");
+        assertThat(members.get(3).getTeam()).isNull();
+
+        //같은 이름의 팀은 한 번만 만든다
+        Long teamB = em.createQuery("select count(t) from Team t where t.name = 'importTeamB'", Long.class).getSingleResult();
+        assertThat(teamB).isEqualTo(1);
+
+        //청크(2, 2, 1)마다 BULK 이벤트 한 번 - row마다 SAVED를 내지 않는다
+        assertThat(events.stream(MemberChangedEvent.class))
+                .extracting(MemberChangedEvent::getType)
+                .containsExactly(MemberChangedEvent.Type.BULK, MemberChangedEvent.Type.BULK, MemberChangedEvent.Type.BULK);
+        List<Object> projected = em.createNativeQuery("select username from member_search" +
+                        " where username like 'import%' order by member_id")
+                .getResultList();
+        assertThat(projected).containsExactly("import1", "import2", "import,3", "import4", "import6");
+    }
+
+    /** commitInterval은 1 ~ member.import.max-commit-interval(100000) */
+    @Test
+    public void commitIntervalBounds() throws Exception {
+        String csv = "importBound1,10,importBoundTeam\n";
+
+        mockMvc.perform(post("/v1/members/import").contentType("text/csv").content(csv)
+                        .param("commitInterval", "100001"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/v1/members/import").contentType("text/csv").content(csv)
+                        .param("commitInterval", "0"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/v1/members/import").contentType("text/csv").content(csv)
+                        .param("commitInterval", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    /** 팀 이름이 컬럼 길이를 넘는 줄은 청크를 실패시키지 않고 거부된 줄이 된다 */
+    @Test
+    public void longTeamNameIsRejectedRow() throws Exception {
+        String csv = "importLong1,10,importLongTeam\n" +
+                "importLong2,20," + "t".repeat(256) + "\n";
+
+        mockMvc.perform(post("/v1/members/import").contentType("text/csv").content(csv)
+                        .param("commitInterval", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedRows[0].line").value(2));
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    public void bucketUpperBoundContainsValue() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 1_000, 123_456_789L, Long.MAX_VALUE / 4}) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+            assertThat(upper).as("value %d", value).isGreaterThanOrEqualTo(value);
+            assertThat(upper).as("value %d", value).isLessThanOrEqualTo(value + value / 8 + 1); //상대 오차 12.5%
+        }
+    }
+
+    @Test
+    public void percentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(0.5)).isZero();
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L); //1us ~ 1ms
+        }
+
+        assertThat(histogram.percentile(0.5)).isBetween(500_000L, 500_000L + 500_000L / 8);
+        assertThat(histogram.percentile(0.99)).isBetween(990_000L, 990_000L + 990_000L / 8);
+        assertThat(histogram.percentile(1.0)).isBetween(1_000_000L, 1_000_000L + 1_000_000L / 8);
+    }
+}
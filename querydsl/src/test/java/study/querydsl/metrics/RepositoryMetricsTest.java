@@ -0,0 +1,85 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberCountCache;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** 리포지토리 호출이 RepositoryMetricsAspect를 거쳐 /metrics/repository 에 SQL 수와 같이 기록된다 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberCountCache memberCountCache;
+
+    @BeforeEach
+    public void before() throws Exception {
+        Team team = new Team("metricsTeam");
+        em.persist(team);
+        for (int i = 1; i <= 3; i++) {
+            em.persist(new Member("metrics" + i, i * 10, team));
+        }
+        em.flush();
+        memberCountCache.invalidateAll();
+        mockMvc.perform(delete("/metrics/repository")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void recordsCallsWithStatements() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("metricsTeam");
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)); //content + count
+
+        mockMvc.perform(get("/metrics/repository"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.method == 'searchPageComplex')].calls", contains(1)))
+                .andExpect(jsonPath("$[?(@.method == 'searchPageComplex')].totalRows", contains(2)))
+                .andExpect(jsonPath("$[?(@.method == 'searchPageComplex')].totalStatements", contains(2)))
+                .andExpect(jsonPath("$[?(@.method == 'searchPageComplex')].errors", contains(0)));
+
+        mockMvc.perform(delete("/metrics/repository")).andExpect(status().isOk());
+        mockMvc.perform(get("/metrics/repository"))
+                .andExpect(jsonPath("$", empty()));
+    }
+
+    /** long 반환값(전체 개수, 벌크 건수)은 row 수가 아니다 - 콜백으로 넘긴 건수만 센다 */
+    @Test
+    public void rowsAreNotLongResults() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("metricsTeam");
+        long total = memberRepository.searchPageRows(condition, PageRequest.of(0, 2), (memberId, username, age, teamId, teamName) -> { });
+        assertThat(total).isEqualTo(3);
+        memberJpaRepository.searchStream(condition, dto -> { });
+        assertThat(memberRepository.bulkAddAge(condition, 1, 10, null)).isEqualTo(3);
+
+        mockMvc.perform(get("/metrics/repository"))
+                .andExpect(jsonPath("$[?(@.method == 'searchPageRows')].totalRows", contains(2)))
+                .andExpect(jsonPath("$[?(@.method == 'searchStream')].totalRows", contains(3)))
+                .andExpect(jsonPath("$[?(@.method == 'bulkAddAge')].totalRows", contains(0)));
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트에서 실행된 SQL 수를 정확히 검증하기 위한 JUnit 확장
+ *
+ * <pre>
+ * &#64;ExtendWith(StatementCountExtension.class)
+ * class SomeTest {
+ *     &#64;Test
+ *     void test(StatementCountExtension.StatementCount statements) {
+ *         statements.reset();
+ *         ...
+ *         statements.assertCount(2);
+ *     }
+ * }
+ * </pre>
+ */
+public class StatementCountExtension implements BeforeEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementCountExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        statementCount(context).reset();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == StatementCount.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return statementCount(extensionContext);
+    }
+
+    private StatementCount statementCount(ExtensionContext context) {
+        return context.getStore(NAMESPACE).getOrComputeIfAbsent(StatementCount.class);
+    }
+
+    /** 테스트 스레드에서 reset 이후 실행된 SQL 수 */
+    public static class StatementCount {
+        private long start = SqlStatementCounter.current();
+
+        public void reset() {
+            start = SqlStatementCounter.current();
+        }
+
+        public long count() {
+            return SqlStatementCounter.current() - start;
+        }
+
+        public void assertCount(long expected) {
+            assertThat(count()).as("실행된 SQL 수").isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** SQL 실행은 SqlStatementCounter.inspect 호출로 대신한다 - 트랜잭션 경계만 실제 트랜잭션 매니저로 */
+@SpringBootTest
+class StatementGuardTest {
+
+    @Autowired PlatformTransactionManager transactionManager;
+
+    StatementGuard guard = new StatementGuard(StatementGuard.Mode.FAIL, 1000, 5);
+    SqlStatementCounter counter = new SqlStatementCounter(guard);
+
+    @Test
+    public void transactionBudget() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            execute(5);
+            assertThrows(StatementLimitExceededException.class, () -> execute(1));
+        });
+
+        //트랜잭션이 끝나면 새 예산
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> execute(5));
+    }
+
+    /** REQUIRES_NEW 안쪽 트랜잭션은 자기 예산 - 바깥 사용량에 더해지지 않는다 */
+    @Test
+    public void requiresNewHasOwnBudget() {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            execute(4);
+            inner.executeWithoutResult(innerStatus -> {
+                execute(5);
+                assertThrows(StatementLimitExceededException.class, () -> execute(1));
+            });
+            execute(1);
+            assertThrows(StatementLimitExceededException.class, () -> execute(1));
+        });
+        assertThat(guard.endRequest()).isZero(); //요청 예산은 없었다
+    }
+
+    /** 한도에서 뺀 트랜잭션은 끝날 때까지 한도 없이 - 다음 트랜잭션은 다시 한도 적용 */
+    @Test
+    public void skipTransactionBudget() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            guard.skipTransactionBudget();
+            execute(20);
+        });
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            execute(5);
+            assertThrows(StatementLimitExceededException.class, () -> execute(1));
+        });
+    }
+
+    private void execute(int statements) {
+        for (int i = 0; i < statements; i++) counter.inspect("select 1");
+    }
+}
@@ -0,0 +1,139 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.event.MemberChangedEvent;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberColumnStoreTest {
+
+    @Test
+    public void search() {
+        MemberColumnStore store = sample();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+        assertThat(store.search(condition)).extracting("username").containsExactly("member4");
+
+        MemberSearchCondition username = new MemberSearchCondition();
+        username.setUsername("member2");
+        List<MemberTeamDto> result = store.search(username);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTeamName()).isEqualTo("teamA");
+
+        MemberSearchCondition ageOnly = new MemberSearchCondition();
+        ageOnly.setAgeGoe(20);
+        assertThat(store.count(ageOnly)).isEqualTo(4); //20, 30, 40, 50
+        assertThat(store.count(new MemberSearchCondition())).isEqualTo(5);
+    }
+
+    @Test
+    public void page() {
+        MemberColumnStore store = sample();
+
+        long[] total = new long[1];
+        List<MemberTeamDto> page = store.page(new MemberSearchCondition(), 2, 2, total, Sort.unsorted());
+        assertThat(page).extracting("memberId").containsExactly(3L, 4L);
+        assertThat(total[0]).isEqualTo(5);
+
+        List<MemberTeamDto> byAgeDesc = store.page(new MemberSearchCondition(), 0, 2, null, Sort.by(Sort.Direction.DESC, "age"));
+        assertThat(byAgeDesc).extracting("age").containsExactly(50, 40);
+        List<MemberTeamDto> unknownSort = store.page(new MemberSearchCondition(), 2, 2, null, Sort.by("password"));
+        assertThat(unknownSort).extracting("memberId").containsExactly(3L, 4L);
+    }
+
+    /** 같은 username이 많아도 row 목록은 늘려 가며 추가 - compact 전후 모두 같은 결과 */
+    @Test
+    public void sameUsernameRows() {
+        MemberColumnStore store = new MemberColumnStore();
+        for (long id = 1; id <= 100; id++) {
+            store.put(id, id % 2 == 0 ? "even" : "odd", (int) id, null);
+        }
+        store.remove(2);
+
+        MemberSearchCondition even = new MemberSearchCondition();
+        even.setUsername("even");
+        assertThat(store.count(even)).isEqualTo(49);
+        store.compact();
+        assertThat(store.count(even)).isEqualTo(49);
+        assertThat(store.search(even).get(0).getMemberId()).isEqualTo(4L);
+    }
+
+    /** 수정/삭제/팀 이름 변경은 compact 전(정렬 안 된 꼬리)에도, 후에도 같은 결과 */
+    @Test
+    public void incrementalChanges() {
+        MemberColumnStore store = sample();
+
+        store.put(1, "member1", 45, 2L);   //teamA -> teamB, 나이 변경
+        store.remove(4);
+        store.putTeam(2, "teamC");
+
+        MemberSearchCondition teamC = new MemberSearchCondition();
+        teamC.setTeamName("teamC");
+        teamC.setAgeGoe(30);
+        assertThat(store.search(teamC)).extracting("memberId").containsExactlyInAnyOrder(1L, 3L);
+
+        store.compact();
+        assertThat(store.search(teamC)).extracting("memberId").containsExactly(1L, 3L);
+        assertThat(store.count(new MemberSearchCondition())).isEqualTo(4);
+
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+        assertThat(store.count(teamB)).isZero();
+    }
+
+    private MemberColumnStore sample() {
+        MemberColumnStore store = new MemberColumnStore();
+        store.putTeam(1, "teamA");
+        store.putTeam(2, "teamB");
+        store.put(1, "member1", 10, 1L);
+        store.put(2, "member2", 20, 1L);
+        store.put(3, "member3", 30, 2L);
+        store.put(4, "member4", 40, 2L);
+        store.put(5, "member5", 50, null);
+        store.compact();
+        return store;
+    }
+
+    /** rebuild가 member 테이블을 읽는 동안 커밋된 변경도 새 저장소에 남는다 */
+    @Test
+    public void changesDuringRebuildAreKept() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        MemberColumnarRepository repository = new MemberColumnarRepository(jdbcTemplate, mock(PlatformTransactionManager.class));
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L);
+        when(rs.getString(2)).thenReturn("member1");
+        when(rs.getInt(3)).thenReturn(10);
+        when(rs.wasNull()).thenReturn(true);
+        doAnswer(invocation -> {
+            //읽기 시작한 뒤에 member2가 저장되고 커밋됨 - 읽고 있는 스냅샷에는 없다
+            Member saved = new Member("member2", 20);
+            saved.setId(2L);
+            repository.onMemberChanged(MemberChangedEvent.saved(saved));
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        repository.rebuild();
+
+        assertThat(repository.search(new MemberSearchCondition())).extracting("username").containsExactly("member1", "member2");
+    }
+}
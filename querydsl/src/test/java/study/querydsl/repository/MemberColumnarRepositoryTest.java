@@ -0,0 +1,152 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 컬럼 저장소는 커밋된 변경만 반영하므로 테스트 트랜잭션 없이 직접 커밋한다.
+ * 다른 테스트에 데이터가 남지 않도록 끝나면 지운다.
+ */
+@SpringBootTest
+class MemberColumnarRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberColumnarRepository memberColumnarRepository;
+    @Autowired MemberRepository memberRepository;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 20; i++) {
+                em.persist(new Member("member" + i, i * 5, i % 3 == 0 ? null : i % 3 == 1 ? teamA : teamB));
+            }
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        memberRepository.bulkDelete(new MemberSearchCondition(), 1000, null);
+        tx.executeWithoutResult(status -> em.createQuery("delete from Team").executeUpdate());
+    }
+
+    @Test
+    public void sameResultsAsDb() {
+        for (MemberSearchCondition condition : conditions()) {
+            assertThat(memberColumnarRepository.search(condition)).as("%s", condition)
+                    .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+
+            Page<MemberTeamDto> columnar = memberColumnarRepository.searchPageComplex(condition, PageRequest.of(0, 100));
+            Page<MemberTeamDto> db = memberRepository.searchPageComplex(condition, PageRequest.of(0, 100));
+            assertThat(columnar.getContent()).as("%s", condition).containsExactlyInAnyOrderElementsOf(db.getContent());
+            assertThat(columnar.getTotalElements()).as("%s", condition).isEqualTo(db.getTotalElements());
+
+            //정렬한 페이지는 순서까지 같다
+            for (Sort sort : List.of(Sort.by(Sort.Direction.DESC, "age"), Sort.by("teamName", "username"),
+                    Sort.by(Sort.Direction.DESC, "teamName"), Sort.by("teamId"))) {
+                PageRequest sorted = PageRequest.of(1, 4, sort);
+                assertThat(memberColumnarRepository.searchPageComplex(condition, sorted).getContent()).as("%s %s", condition, sort)
+                        .containsExactlyElementsOf(memberRepository.searchPageComplex(condition, sorted).getContent());
+            }
+
+            //뒤쪽 페이지도 전체 개수는 같다
+            assertThat(memberColumnarRepository.searchPageComplex(condition, PageRequest.of(1, 3)).getTotalElements())
+                    .isEqualTo(memberRepository.searchPageComplex(condition, PageRequest.of(1, 3)).getTotalElements());
+        }
+    }
+
+    /** 커밋된 수정, 팀 이름 변경, 벌크 연산은 반영되고 롤백된 변경은 반영되지 않는다 */
+    @Test
+    public void appliesCommittedChanges() {
+        MemberSearchCondition member1 = new MemberSearchCondition();
+        member1.setUsername("member1");
+
+        tx.executeWithoutResult(status -> {
+            em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+                    .getSingleResult().setAge(99);
+            em.find(Team.class, teamBId).setName("teamC");
+        });
+        assertThat(memberColumnarRepository.search(member1)).extracting("age").containsExactly(99);
+
+        MemberSearchCondition teamC = new MemberSearchCondition();
+        teamC.setTeamName("teamC");
+        assertThat(memberColumnarRepository.search(teamC)).containsExactlyInAnyOrderElementsOf(memberRepository.search(teamC));
+        assertThat(memberColumnarRepository.count(teamC)).isPositive();
+
+        tx.executeWithoutResult(status -> {
+            em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+                    .getSingleResult().setAge(1);
+            em.persist(new Member("rolledBack", 10, em.find(Team.class, teamAId)));
+            em.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(memberColumnarRepository.search(member1)).extracting("age").containsExactly(99);
+        MemberSearchCondition rolledBack = new MemberSearchCondition();
+        rolledBack.setUsername("rolledBack");
+        assertThat(memberColumnarRepository.search(rolledBack)).isEmpty();
+
+        //벌크 연산은 영향받은 id 구간만 다시 읽는다
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        memberRepository.bulkAddAge(teamA, 1, 3, null);
+        memberRepository.bulkDelete(teamC, 3, null);
+        for (MemberSearchCondition condition : conditions()) {
+            assertThat(memberColumnarRepository.search(condition)).as("%s", condition)
+                    .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+        }
+        assertThat(memberColumnarRepository.count(teamC)).isZero();
+    }
+
+    private List<MemberSearchCondition> conditions() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        conditions.add(new MemberSearchCondition());
+
+        MemberSearchCondition username = new MemberSearchCondition();
+        username.setUsername("member7");
+        conditions.add(username);
+
+        MemberSearchCondition teamAgeRange = new MemberSearchCondition();
+        teamAgeRange.setTeamName("teamA");
+        teamAgeRange.setAgeGoe(20);
+        teamAgeRange.setAgeLoe(70);
+        conditions.add(teamAgeRange);
+
+        MemberSearchCondition ageGoe = new MemberSearchCondition();
+        ageGoe.setAgeGoe(50);
+        conditions.add(ageGoe);
+
+        MemberSearchCondition noMatch = new MemberSearchCondition();
+        noMatch.setTeamName("noSuchTeam");
+        conditions.add(noMatch);
+        return conditions;
+    }
+}
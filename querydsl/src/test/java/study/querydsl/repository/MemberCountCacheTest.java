@@ -0,0 +1,76 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.MemberChangedEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    @Test
+    public void hitAndMiss() {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        MemberSearchCondition condition = condition("teamA");
+        assertThat(cache.getOrLoad(condition, () -> loads.incrementAndGet() * 100L)).isEqualTo(100);
+        assertThat(cache.getOrLoad(condition, () -> loads.incrementAndGet() * 100L)).isEqualTo(100);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+    }
+
+    /** 빈 문자열 조건은 조건 없음과 같은 키 */
+    @Test
+    public void normalizedKey() {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 10);
+        cache.getOrLoad(new MemberSearchCondition(), () -> 4L);
+
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUsername("");
+        blank.setTeamName(" ");
+        assertThat(cache.getOrLoad(blank, () -> 99L)).isEqualTo(4);
+    }
+
+    @Test
+    public void ttlExpire() {
+        MemberCountCache cache = new MemberCountCache(Duration.ZERO, 10);
+        cache.getOrLoad(condition("teamA"), () -> 1L);
+        assertThat(cache.getOrLoad(condition("teamA"), () -> 2L)).isEqualTo(2);
+    }
+
+    @Test
+    public void lruEviction() {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 2);
+        cache.getOrLoad(condition("teamA"), () -> 1L);
+        cache.getOrLoad(condition("teamB"), () -> 2L);
+        cache.getOrLoad(condition("teamA"), () -> -1L); //teamA를 최근에 사용
+        cache.getOrLoad(condition("teamC"), () -> 3L);  //가장 오래 안 쓴 teamB가 밀려난다
+
+        assertThat(cache.getOrLoad(condition("teamA"), () -> -1L)).isEqualTo(1);
+        assertThat(cache.getOrLoad(condition("teamB"), () -> 20L)).isEqualTo(20);
+        assertThat(cache.stats().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidateOnMemberChange() {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 10);
+        cache.getOrLoad(condition("teamA"), () -> 1L);
+
+        cache.onMemberChanged(MemberChangedEvent.bulk());
+
+        assertThat(cache.stats().getSize()).isZero();
+        assertThat(cache.getOrLoad(condition("teamA"), () -> 2L)).isEqualTo(2);
+    }
+
+    private MemberSearchCondition condition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/** MemberRepositoryImpl을 거치지 않은 벌크 JPQL도 검색 캐시를 무효화한다 */
+@SpringBootTest
+@Transactional
+class MemberDmlInspectorTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberSearchCache memberSearchCache;
+
+    @Test
+    public void rawBulkUpdateInvalidates() {
+        em.persist(new Member("dml1", 10));
+        em.flush();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        AtomicInteger loads = new AtomicInteger();
+
+        memberSearchCache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+        memberSearchCache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(1);
+
+        new JPAQueryFactory(em).update(member).set(member.age, 20).where(member.username.eq("dml1")).execute();
+        memberSearchCache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(2);
+
+        em.createQuery("delete from Member m where m.username = 'dml1'").executeUpdate();
+        memberSearchCache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void onlyMemberAndTeamDml() {
+        MemberSearchCache cache = new MemberSearchCache(1000, Duration.ofMinutes(1));
+        MemberDmlInspector inspector = new MemberDmlInspector(sql -> sql, cache);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+
+        inspector.inspect("select m.member_id from member m");
+        inspector.inspect("merge into member_search (member_id) key (member_id) values (?)");
+        inspector.inspect("update member_search set team_name=? where team_id=?");
+        cache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(1);
+
+        inspector.inspect("update team set name=? where id=?");
+        cache.getOrLoad("dml", condition, null, () -> List.of(loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -1,7 +1,9 @@
 package study.querydsl.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,16 +11,20 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.StatementCountExtension;
+import study.querydsl.metrics.StatementCountExtension.StatementCount;
 
 import javax.persistence.EntityManager;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(StatementCountExtension.class)
 class MemberJpaRepositoryTest {
 
     @Autowired
@@ -70,4 +76,123 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * 스트리밍 조회 - 결과를 List로 모으지 않고 하나의 커서에서 한 건씩 넘긴다.
+     * H2는 LAZY_QUERY_EXECUTION 없이는 결과를 DB 쪽에서 전부 만들어 두므로 힙 사용량 자체는 여기서 검증하지 않는다.
+     */
+    @Test
+    public void searchStreamTest(StatementCount statements) {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 5_000; i++) {
+            em.persist(new Member("member" + i, i % 100, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        AtomicInteger seen = new AtomicInteger();
+        statements.reset();
+        long count = memberJpaRepository.searchStream(condition, dto -> {
+            assertThat(dto.getUsername()).isEqualTo("member" + seen.getAndIncrement());
+        });
+
+        assertThat(count).isEqualTo(5_000);
+        assertThat(seen.get()).isEqualTo(5_000);
+        statements.assertCount(1);  //페이지 단위로 나눠 읽지 않고 하나의 커서로 끝까지 읽는다
+
+        //action이 실패하면 나머지 row는 읽지 않고 스트림을 닫는다
+        AtomicInteger partial = new AtomicInteger();
+        assertThrows(UnsupportedOperationException.class, () -> memberJpaRepository.searchStream(condition, dto -> {
+            if (partial.incrementAndGet() == 10) throw new UnsupportedOperationException("stop");
+        }));
+        assertThat(partial.get()).isEqualTo(10);
+        assertThat(memberJpaRepository.searchStream(condition, dto -> { })).isEqualTo(5_000);
+    }
+
+    /** 16개 조건 조합 모두 Querydsl 동적 쿼리와 같은 결과 */
+    @Test
+    public void searchPrecompiledTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        for (int shape = 0; shape < MemberSearchTemplates.SHAPES; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            if ((shape & MemberSearchTemplates.USERNAME) != 0) condition.setUsername("member4");
+            if ((shape & MemberSearchTemplates.TEAM_NAME) != 0) condition.setTeamName("teamB");
+            if ((shape & MemberSearchTemplates.AGE_GOE) != 0) condition.setAgeGoe(35);
+            if ((shape & MemberSearchTemplates.AGE_LOE) != 0) condition.setAgeLoe(40);
+
+            assertThat(MemberSearchTemplates.shapeOf(condition)).isEqualTo(shape);
+            assertThat(memberJpaRepository.searchPrecompiled(condition))
+                    .as("shape %d", shape)
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+        }
+    }
+
+    /** 읽기 전용으로 조회한 엔티티는 값을 바꿔도 flush 때 update 되지 않는다 */
+    @Test
+    public void readOnlyTest() {
+        memberJpaRepository.save(new Member("member1", 10));
+        em.flush();
+        em.clear();
+
+        List<Member> result = memberJpaRepository.findByUsernameReadOnly("member1");
+        assertThat(result).extracting("username").containsExactly("member1");
+        assertThat(em.unwrap(Session.class).isReadOnly(result.get(0))).isTrue();
+
+        result.get(0).setAge(99);
+        em.flush();
+        em.clear();
+
+        assertThat(memberJpaRepository.findAllReadOnly()).extracting("age").containsExactly(10);
+        assertThat(memberJpaRepository.findAll_QuerydslReadOnly()).extracting("age").containsExactly(10);
+    }
+
+    /** 페치 조인 - 팀까지 쿼리 한 번, 팀의 members는 배치로 한 번 */
+    @Test
+    public void fetchJoinTest(StatementCount statements) {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamB));
+        em.persist(new Member("member3", 30));  //팀 없는 회원
+        em.flush();
+        em.clear();
+
+        statements.reset();
+        List<Member> members = memberJpaRepository.findAllWithTeam();
+        assertThat(members).extracting(m -> m.getTeam() == null ? null : m.getTeam().getName())
+                .containsExactlyInAnyOrder("teamA", "teamB", null);
+        statements.assertCount(1);
+        em.clear();
+
+        statements.reset();
+        List<Member> querydslMembers = memberJpaRepository.findAll_QuerydslWithTeam();
+        assertThat(querydslMembers).hasSize(3);
+        querydslMembers.forEach(m -> {
+            if (m.getTeam() != null) m.getTeam().getName();
+        });
+        statements.assertCount(1);
+        em.clear();
+
+        //@BatchSize - 두 팀의 members를 in 쿼리 한 번으로
+        List<Team> teams = em.createQuery("select t from Team t", Team.class).getResultList();
+        statements.reset();
+        teams.forEach(t -> t.getMembers().size());
+        statements.assertCount(1);
+    }
+}
@@ -1,24 +1,46 @@
 package study.querydsl.repository;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkProgress;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.InvalidSearchRequestException;
+import study.querydsl.dto.MemberCountedPage;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.SqlStatementCounter;
+import study.querydsl.metrics.StatementCountExtension;
+import study.querydsl.metrics.StatementCountExtension.StatementCount;
 
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(StatementCountExtension.class)
 class MemberRepositoryTest {
 
     @Autowired
@@ -26,6 +48,8 @@ class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
 
+    @Autowired PlatformTransactionManager transactionManager;
+
     @Test
     public void basicTest() {
         Member member = new Member("member1", 10);
@@ -69,6 +93,70 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    public void searchPageRows() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, null));
+        em.flush();
+        em.clear();
+
+        //DTO 대신 컬럼 값으로 받는다, 마지막 페이지라 전체 건수는 count 없이
+        List<String> rows = new ArrayList<>();
+        long total = memberRepository.searchPageRows(new MemberSearchCondition(), PageRequest.of(1, 2),
+                (memberId, username, age, teamId, teamName) -> rows.add(username + ":" + age + ":" + teamName));
+        assertThat(rows).containsExactly("member3:30:null");
+        assertThat(total).isEqualTo(3);
+
+        //페이지가 꽉 차면 count 쿼리
+        total = memberRepository.searchPageRows(new MemberSearchCondition(), PageRequest.of(0, 2),
+                (memberId, username, age, teamId, teamName) -> assertThat(teamName).isEqualTo("teamA"));
+        assertThat(total).isEqualTo(3);
+    }
+
+    @Test
+    public void searchFields() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        //team 컬럼을 고르지 않으면 teamName 조건이 있어도 조인하지 않는다
+        List<Map<String, Object>> narrow = new ArrayList<>();
+        List<String> sqls = SqlStatementCounter.capture(() ->
+                narrow.addAll(memberRepository.searchFields(condition, MemberField.parse("username,memberId"))));
+        assertThat(sqls).hasSize(1);
+        assertThat(sqls.get(0)).doesNotContainIgnoringCase("join");
+        assertThat(narrow).extracting(row -> row.get("username")).containsExactly("member3", "member4");
+        assertThat(narrow.get(0).keySet()).containsExactly("username", "memberId");
+
+        //teamId는 member.team_id 컬럼이라 조인 없이, teamName만 조인
+        sqls = SqlStatementCounter.capture(() -> memberRepository.searchFields(condition, MemberField.parse("teamId")));
+        assertThat(sqls.get(0)).doesNotContainIgnoringCase("join");
+        sqls = SqlStatementCounter.capture(() -> memberRepository.searchFields(condition, MemberField.parse("teamName")));
+        assertThat(sqls.get(0)).containsIgnoringCase("join");
+
+        Page<Map<String, Object>> page = memberRepository.searchPageFields(
+                new MemberSearchCondition(), MemberField.parse(null), PageRequest.of(0, 3));
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent().get(0).keySet())
+                .containsExactly("memberId", "username", "age", "teamId", "teamName");
+        assertThat(page.getContent().get(0)).containsEntry("teamName", "teamA");
+
+        assertThrows(InvalidSearchRequestException.class, () -> MemberField.parse("username,password"));
+    }
+
     @Test
     public void searchPageSimple() {
         Team teamA = new Team("teamA");
@@ -95,4 +183,319 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
-}
\ No newline at end of file
+    /** Pageable 정렬이 쿼리에 반영되고, 같은 값끼리는 member_id 순서 */
+    @Test
+    public void searchPageSorted() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 20, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest ageDesc = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age"));
+        assertThat(memberRepository.searchPageComplex(condition, ageDesc).getContent())
+                .extracting("username").containsExactly("member2", "member5");
+        assertThat(memberRepository.searchSlice(condition, ageDesc).getContent())
+                .extracting("username").containsExactly("member2", "member5");
+        assertThat(memberRepository.searchPageFields(condition, MemberField.parse("username"), ageDesc).getContent())
+                .extracting(row -> row.get("username")).containsExactly("member2", "member5");
+
+        PageRequest usernameDesc = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username"));
+        assertThat(memberRepository.searchPageSimple(condition, usernameDesc).getContent())
+                .extracting("username").containsExactly("member5", "member4");
+
+        PageRequest teamNameDesc = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "teamName"));
+        assertThat(memberRepository.searchPageComplex(condition, teamNameDesc).getContent())
+                .extracting("username").containsExactly("member3", "member4");
+        assertThat(memberRepository.searchPageFields(condition, MemberField.parse("username"), teamNameDesc).getContent())
+                .extracting(row -> row.get("username")).containsExactly("member3", "member4");
+
+        //모르는 속성은 예전처럼 무시한다
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 2, Sort.by("password"))).getContent())
+                .extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void searchByCursor() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberCursorPage first = memberRepository.searchByCursor(condition, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        //다음 커서로 이어서 조회
+        MemberCursorPage second = memberRepository.searchByCursor(condition, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+
+        //잘못된 커서는 400으로 나가는 예외, size는 범위 안으로
+        assertThrows(InvalidSearchRequestException.class, () -> memberRepository.searchByCursor(condition, "%%%", 3));
+        assertThrows(InvalidSearchRequestException.class, () -> memberRepository.searchByCursor(condition,
+                Base64.getUrlEncoder().encodeToString("m:abc".getBytes(StandardCharsets.UTF_8)), 3));
+        assertThat(memberRepository.searchByCursor(condition, null, Integer.MAX_VALUE).getSize()).isEqualTo(2000);
+        assertThat(memberRepository.searchByCursor(condition, null, 0).getContent()).hasSize(1);
+    }
+
+    @Test
+    public void searchPageCounted() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        //cap 2건까지만 센다 -> '최소 2건'
+        MemberCountedPage capped = memberRepository.searchPageCounted(condition, pageRequest, CountMode.CAPPED, 2);
+        assertThat(capped.getContent()).extracting("username").containsExactly("member1");
+        assertThat(capped.getTotalElements()).isEqualTo(2);
+        assertThat(capped.isTotalExact()).isFalse();
+
+        //cap 안에 들어오면 정확한 개수
+        MemberCountedPage underCap = memberRepository.searchPageCounted(condition, pageRequest, CountMode.CAPPED, 10);
+        assertThat(underCap.getTotalElements()).isEqualTo(4);
+        assertThat(underCap.isTotalExact()).isTrue();
+
+        MemberCountedPage exact = memberRepository.searchPageCounted(condition, pageRequest, CountMode.EXACT, 2);
+        assertThat(exact.getTotalElements()).isEqualTo(4);
+        assertThat(exact.isTotalExact()).isTrue();
+
+        //cap을 이미 넘은 페이지는 더 세지 않는다 -> '최소 지금까지 본 건수'
+        MemberCountedPage deep = memberRepository.searchPageCounted(condition, PageRequest.of(2, 1), CountMode.CAPPED, 2);
+        assertThat(deep.getContent()).extracting("username").containsExactly("member3");
+        assertThat(deep.getTotalElements()).isEqualTo(3);
+        assertThat(deep.isTotalExact()).isFalse();
+
+        //마지막 페이지는 세지 않고도 정확하다
+        MemberCountedPage last = memberRepository.searchPageCounted(condition, PageRequest.of(1, 3), CountMode.CAPPED, 2);
+        assertThat(last.getTotalElements()).isEqualTo(4);
+        assertThat(last.getCountMode()).isEqualTo(CountMode.EXACT);
+
+        //조건이 있으면 추정치를 쓸 수 없으므로 CAPPED로 세고 그렇게 알려준다
+        MemberSearchCondition teamBCondition = new MemberSearchCondition();
+        teamBCondition.setTeamName("teamB");
+        MemberCountedPage estimated = memberRepository.searchPageCounted(teamBCondition, pageRequest, CountMode.ESTIMATED, 10);
+        assertThat(estimated.getTotalElements()).isEqualTo(2);
+        assertThat(estimated.isTotalExact()).isTrue();
+        assertThat(estimated.getCountMode()).isEqualTo(CountMode.CAPPED);
+
+        assertThrows(InvalidSearchRequestException.class,
+                () -> memberRepository.searchPageCounted(condition, pageRequest, CountMode.CAPPED, 100_001));
+        assertThrows(InvalidSearchRequestException.class,
+                () -> memberRepository.searchPageCounted(condition, pageRequest, CountMode.CAPPED, 0));
+    }
+
+    @Test
+    public void searchSlice() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    /** count가 다른 커넥션에서 돌아야 하므로 테스트 트랜잭션 없이 커밋된 데이터로 확인 */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void searchPageConcurrent() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 1; i <= 4; i++) {
+                em.persist(new Member("concurrent" + i, i * 10, teamA));
+            }
+        });
+
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("teamA");
+            condition.setAgeGoe(20);
+
+            Page<MemberTeamDto> result = memberRepository.searchPageConcurrent(condition, PageRequest.of(0, 2));
+            assertThat(result.getContent()).extracting("username").containsExactly("concurrent2", "concurrent3");
+            assertThat(result.getTotalElements()).isEqualTo(3);
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like 'concurrent%'").executeUpdate();
+                em.createQuery("delete from Team t where t.members is empty").executeUpdate();
+            });
+        }
+    }
+
+    /** 테스트 트랜잭션 안에서는 순서대로 실행되어 같은 트랜잭션의 데이터를 본다 */
+    @Test
+    public void searchPageConcurrentInTransaction() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+
+        Page<MemberTeamDto> result = memberRepository.searchPageConcurrent(new MemberSearchCondition(), PageRequest.of(0, 3));
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    /** 실행된 SQL 수 검증 - LAZY인 team을 건드리면 팀 수만큼 추가 조회(N+1) */
+    @Test
+    public void statementCount(StatementCount statements) {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+
+        statements.reset();
+        List<Member> members = memberRepository.findAll();
+        statements.assertCount(1);
+
+        members.forEach(m -> m.getTeam().getName());
+        statements.assertCount(3); //teamA, teamB 각각 한 번씩
+
+        //content + count, 같은 조건으로 다시 조회하면 count는 캐시
+        statements.reset();
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 3));
+        statements.assertCount(2);
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 3));
+        statements.assertCount(3);
+    }
+
+    /** 테스트 트랜잭션 안에서는 구간별 커밋 없이 참여하고, 끝나면 영속성 컨텍스트가 비워진다 */
+    @Test
+    public void bulkOperations() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        List<BulkProgress> progress = new ArrayList<>();
+        long added = memberRepository.bulkAddAge(new MemberSearchCondition(), 1, 2, progress::add);
+        assertThat(added).isEqualTo(4);
+        assertThat(progress).isNotEmpty();
+        assertThat(progress.get(progress.size() - 1).getTotalAffected()).isEqualTo(4);
+        assertThat(progress.get(progress.size() - 1).getChunk()).isEqualTo(progress.get(0).getTotalChunks());
+        assertThat(memberRepository.findById(member1.getId()).get().getAge()).isEqualTo(11);
+
+        MemberSearchCondition teamBCondition = new MemberSearchCondition();
+        teamBCondition.setTeamName("teamB");
+        long moved = memberRepository.bulkChangeTeam(teamBCondition, teamA.getId(), 1, null);
+        assertThat(moved).isEqualTo(2);
+        assertThat(memberRepository.findById(member4.getId()).get().getTeam().getName()).isEqualTo("teamA");
+
+        MemberSearchCondition old = new MemberSearchCondition();
+        old.setAgeGoe(30);
+        long deleted = memberRepository.bulkDelete(old, 100, null);
+        assertThat(deleted).isEqualTo(2);
+        assertThat(memberRepository.findAll()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+
+        //리포지토리 프록시가 IllegalArgumentException을 스프링 예외로 바꾼다
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> memberRepository.bulkDelete(new MemberSearchCondition(), 0, null));
+    }
+
+    /** 바깥 트랜잭션이 없으면 청크마다 커밋 - 중간에 실패해도 앞 청크는 남는다 */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bulkOperationsCommitPerChunk() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> ids = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("bulkChunkTeam");
+            em.persist(team);
+            for (int i = 1; i <= 4; i++) {
+                Member member = new Member("bulkChunk" + i, i * 10, team);
+                em.persist(member);
+                ids.add(member.getId());
+            }
+        });
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("bulkChunkTeam");
+        try {
+            InvalidDataAccessApiUsageException stopped = assertThrows(InvalidDataAccessApiUsageException.class,
+                    () -> memberRepository.bulkAddAge(condition, 1, 2, progress -> {
+                        if (progress.getChunk() == 1) throw new IllegalStateException("첫 청크 뒤에 중단");
+                    }));
+            assertThat(stopped).hasCauseInstanceOf(IllegalStateException.class);
+
+            //첫 청크(id가 작은 2건)만 커밋됐다
+            List<Integer> ages = new ArrayList<>();
+            for (Long id : ids) ages.add(memberRepository.findById(id).get().getAge());
+            assertThat(ages).containsExactly(11, 21, 30, 40);
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.username like 'bulkChunk%'").executeUpdate();
+                em.createQuery("delete from Team t where t.name = 'bulkChunkTeam'").executeUpdate();
+            });
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.MemberChangedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchCacheTest {
+
+    @Test
+    public void hitByNormalizedConditionAndPage() {
+        MemberSearchCache cache = new MemberSearchCache(1000, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        MemberSearchCondition same = new MemberSearchCondition();
+        same.setTeamName("teamA");
+        same.setUsername("");
+
+        cache.getOrLoad("v3", condition, PageRequest.of(0, 10), () -> List.of(loads.incrementAndGet()));
+        List<Integer> cached = cache.getOrLoad("v3", same, PageRequest.of(0, 10), () -> List.of(loads.incrementAndGet()));
+        assertThat(cached).containsExactly(1);
+
+        //다른 페이지, 다른 검색 종류는 따로
+        cache.getOrLoad("v3", condition, PageRequest.of(1, 10), () -> List.of(loads.incrementAndGet()));
+        cache.getOrLoad("v2", condition, PageRequest.of(0, 10), () -> List.of(loads.incrementAndGet()));
+        assertThat(loads.get()).isEqualTo(3);
+
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    public void versionBumpOnMemberChange() {
+        MemberSearchCache cache = new MemberSearchCache(1000, Duration.ofMinutes(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.getOrLoad("v1", condition, null, () -> List.of("before"));
+        cache.onMemberChanged(MemberChangedEvent.bulk());
+
+        List<String> result = cache.getOrLoad("v1", condition, null, () -> List.of("after"));
+        assertThat(result).containsExactly("after");
+    }
+}
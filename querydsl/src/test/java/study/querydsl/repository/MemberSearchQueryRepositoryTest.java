@@ -0,0 +1,101 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSearchQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired MemberSearchQueryRepository memberSearchQueryRepository;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void searchTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> result = memberSearchQueryRepository.search(condition);
+        assertThat(result).extracting("username").containsExactly("member4");
+        assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(memberRepository.search(condition));
+
+        Page<MemberTeamDto> page = memberSearchQueryRepository.searchPage(new MemberSearchCondition(), PageRequest.of(0, 3));
+        assertThat(page.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+
+        //정렬도 v3(searchPageComplex)와 같다
+        for (Sort sort : List.of(Sort.by(Sort.Direction.DESC, "age"), Sort.by("teamName", "username"),
+                Sort.by(Sort.Direction.DESC, "teamId"))) {
+            PageRequest pageRequest = PageRequest.of(1, 2, sort);
+            assertThat(memberSearchQueryRepository.searchPage(new MemberSearchCondition(), pageRequest).getContent())
+                    .as("%s", sort)
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(memberRepository.searchPageComplex(new MemberSearchCondition(), pageRequest).getContent());
+        }
+    }
+
+    /** 회원 수정/삭제, 팀 이름 변경, 벌크 연산이 같은 트랜잭션 안에서 읽기 모델에 반영된다 */
+    @Test
+    public void syncTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+
+        member1.setAge(11);
+        teamB.setName("teamC");
+        em.remove(em.find(Member.class, member2.getId()));
+        em.persist(new Member("member3", 30, teamB));
+
+        MemberSearchCondition teamC = new MemberSearchCondition();
+        teamC.setTeamName("teamC");
+        assertThat(memberSearchQueryRepository.search(teamC)).extracting("username").containsExactly("member3");
+
+        MemberSearchCondition member1Condition = new MemberSearchCondition();
+        member1Condition.setUsername("member1");
+        assertThat(memberSearchQueryRepository.search(member1Condition)).extracting("age").containsExactly(11);
+
+        memberRepository.bulkAddAge(new MemberSearchCondition(), 1, 10, null);
+        assertThat(memberSearchQueryRepository.search(member1Condition)).extracting("age").containsExactly(12);
+    }
+}
@@ -0,0 +1,111 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.InvalidSearchRequestException;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * username 인덱스는 커밋된 변경만 반영하므로 테스트 트랜잭션 없이 직접 커밋한다.
+ * 다른 테스트에 데이터가 남지 않도록 끝나면 지운다.
+ */
+@SpringBootTest
+class MemberUsernameIndexTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberUsernameIndex memberUsernameIndex;
+    @Autowired MemberRepository memberRepository;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team keep = new Team("idxKeepTeam");
+            Team drop = new Team("idxDropTeam");
+            em.persist(keep);
+            em.persist(drop);
+            for (int i = 1; i <= 5; i++) {
+                em.persist(new Member("idxuser" + i, i * 10, i % 2 == 0 ? drop : keep));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("select m from Member m where m.username like 'idx%'", Member.class)
+                    .getResultList().forEach(em::remove); //엔티티로 지워서 인덱스에도 반영
+            em.createQuery("select t from Team t where t.name like 'idx%'", Team.class)
+                    .getResultList().forEach(em::remove);
+        });
+    }
+
+    @Test
+    public void searchByUsernamePaging() {
+        Page<MemberTeamDto> second = memberRepository.searchByUsername(UsernameMatch.PREFIX, "idxuser", PageRequest.of(1, 2));
+        assertThat(second.getContent()).extracting("username").containsExactly("idxuser3", "idxuser4");
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(second.getContent().get(1).getTeamName()).isEqualTo("idxDropTeam");
+
+        Page<MemberTeamDto> contains = memberRepository.searchByUsername(UsernameMatch.CONTAINS, "user5", PageRequest.of(0, 10));
+        assertThat(contains.getContent()).extracting("username").containsExactly("idxuser5");
+
+        Page<MemberTeamDto> beyond = memberRepository.searchByUsername(UsernameMatch.PREFIX, "idxuser", PageRequest.of(5, 2));
+        assertThat(beyond.getContent()).isEmpty();
+        assertThat(beyond.getTotalElements()).isEqualTo(5);
+
+        assertThrows(InvalidSearchRequestException.class,
+                () -> memberRepository.searchByUsername(UsernameMatch.PREFIX, " ", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    public void onlyCommittedChanges() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("idxrolledback", 10));
+            em.createQuery("select m from Member m where m.username = 'idxuser1'", Member.class)
+                    .getSingleResult().setUsername("idxrenamed");
+            em.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.PREFIX, "idxrolledback")).isEmpty();
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.PREFIX, "idxrenamed")).isEmpty();
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.PREFIX, "idxuser1")).hasSize(1);
+
+        tx.executeWithoutResult(status -> em.createQuery("select m from Member m where m.username = 'idxuser1'", Member.class)
+                .getSingleResult().setUsername("idxrenamed"));
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.PREFIX, "idxrenamed")).hasSize(1);
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.PREFIX, "idxuser1")).isEmpty();
+    }
+
+    /** 벌크 삭제는 엔티티 이벤트가 없다 - 영향받은 id 구간을 다시 읽어서 지워진 회원이 빠진다 */
+    @Test
+    public void bulkRangeReload() {
+        MemberSearchCondition dropTeam = new MemberSearchCondition();
+        dropTeam.setTeamName("idxDropTeam");
+        assertThat(memberRepository.bulkDelete(dropTeam, 2, null)).isEqualTo(2);
+
+        Page<MemberTeamDto> page = memberRepository.searchByUsername(UsernameMatch.PREFIX, "idxuser", PageRequest.of(0, 10));
+        assertThat(page.getContent()).extracting("username").containsExactly("idxuser1", "idxuser3", "idxuser5");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.CONTAINS, "xuser")).hasSize(3);
+    }
+}
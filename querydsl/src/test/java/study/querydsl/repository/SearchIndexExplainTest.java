@@ -0,0 +1,142 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.MemberField;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.metrics.SqlStatementCounter;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.repository.MemberSearchTemplates.*;
+
+/**
+ * 검색 조건 조합(16가지)마다 실제로 실행되는 SQL을 모아서 H2 EXPLAIN으로 실행 계획을 확인한다.
+ * 인덱스를 타지 못하고 테이블 전체를 읽는(tableScan) 쿼리가 생기면 실패한다.
+ * 조회만 하므로 테스트 트랜잭션 없이 - 메소드마다 트랜잭션이 따로 잡혀서 트랜잭션당 SQL 한도에 걸리지 않는다.
+ */
+@SpringBootTest
+class SearchIndexExplainTest {
+
+    /** 전체 스캔이 맞는 조건 조합과 그 이유 */
+    private static final Map<Integer, String> TABLE_SCAN_ALLOWED = Map.of(
+            0, "조건이 없으면 전체를 읽는다 - 인덱스로 줄일 범위가 없다");
+
+    private static final List<Sort> SORTS = List.of(
+            Sort.unsorted(),
+            Sort.by(Sort.Direction.ASC, "username"),
+            Sort.by(Sort.Direction.DESC, "username"),
+            Sort.by(Sort.Direction.ASC, "age"),
+            Sort.by(Sort.Direction.DESC, "age"),
+            Sort.by(Sort.Direction.ASC, "teamName"));
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberCountCache memberCountCache;
+
+    @BeforeEach
+    public void before() {
+        memberCountCache.invalidateAll(); //count 쿼리도 실행되도록
+    }
+
+    @Test
+    public void searchQueriesUseIndexes() throws SQLException {
+        List<String> violations = new ArrayList<>();
+
+        for (int shape = 0; shape < SHAPES; shape++) {
+            MemberSearchCondition condition = conditionOf(shape);
+            Set<String> sqls = new LinkedHashSet<>(SqlStatementCounter.capture(() -> runSearches(condition)));
+            assertThat(sqls).as("shape %d", shape).isNotEmpty()
+                    .anyMatch(sql -> sql.contains(" order by member0_.username desc")); //정렬이 SQL까지 내려간다
+
+            for (String sql : sqls) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan") && !TABLE_SCAN_ALLOWED.containsKey(shape)) {
+                    violations.add(shapeLabel(shape) + "\n  sql: " + sql + "\n  plan: " + plan);
+                }
+            }
+        }
+
+        assertThat(violations).as("인덱스를 타지 않는 검색 쿼리").isEmpty();
+    }
+
+    /**
+     * 검색 조건을 받는 조회 메소드를 모두 실행 - 페이징은 count까지 실행되도록 두 번째 페이지로.
+     * 페이징 메소드는 정렬 없이 한 번, 정렬(username/age 오름차순, 내림차순, teamName)마다 한 번씩.
+     */
+    private void runSearches(MemberSearchCondition condition) {
+        memberJpaRepository.search(condition);
+        memberJpaRepository.searchByBuilder(condition);
+        memberJpaRepository.searchPrecompiled(condition);
+        memberJpaRepository.searchStream(condition, dto -> { });
+        memberRepository.search(condition);
+        memberRepository.searchByCursor(condition, cursor(1L), 10);
+        for (Sort sort : SORTS) {
+            runPagedSearches(condition, PageRequest.of(1, 10, sort));
+        }
+    }
+
+    private void runPagedSearches(MemberSearchCondition condition, PageRequest secondPage) {
+        memberRepository.searchPageSimple(condition, secondPage);
+        memberRepository.searchPageComplex(condition, secondPage);
+        memberRepository.searchPageRows(condition, secondPage, (memberId, username, age, teamId, teamName) -> { });
+        memberRepository.searchPageFields(condition, MemberField.parse(null), secondPage);
+        memberRepository.searchSlice(condition, secondPage);
+        memberRepository.searchPageCounted(condition, secondPage, CountMode.CAPPED, 100);
+        memberRepository.searchPageCounted(condition, secondPage, CountMode.EXACT, 100);
+    }
+
+    /** 파라미터는 문자열로 바인딩해도 H2가 컬럼 타입으로 변환하므로 인덱스 선택에는 영향이 없다 */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setString(i, "1");
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) plan.append(rs.getString(1));
+            }
+            return plan.toString();
+        }
+    }
+
+    private MemberSearchCondition conditionOf(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & USERNAME) != 0) condition.setUsername("member1");
+        if ((shape & TEAM_NAME) != 0) condition.setTeamName("teamA");
+        if ((shape & AGE_GOE) != 0) condition.setAgeGoe(20);
+        if ((shape & AGE_LOE) != 0) condition.setAgeLoe(40);
+        return condition;
+    }
+
+    private String shapeLabel(int shape) {
+        return "shape " + shape + " " + conditionOf(shape);
+    }
+
+    private String cursor(Long memberId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("m:" + memberId).getBytes(StandardCharsets.UTF_8));
+    }
+}
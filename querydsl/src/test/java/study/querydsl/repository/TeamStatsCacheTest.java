@@ -0,0 +1,99 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.entity.Team;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TeamStatsCacheTest {
+
+    @Test
+    public void cachedByAgeRange() {
+        AtomicInteger loads = new AtomicInteger();
+        TeamStatsCache cache = new TeamStatsCache(condition -> stats(loads.incrementAndGet()), Runnable::run,
+                Duration.ofMinutes(1), Duration.ofMinutes(5), 100);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        MemberSearchCondition sameRange = new MemberSearchCondition();
+        sameRange.setAgeGoe(20);
+        sameRange.setUsername("member1"); //나이 범위만 키로 쓴다
+
+        cache.get(condition);
+        assertThat(cache.get(sameRange)).extracting("memberCount").containsExactly(1L);
+        cache.get(new MemberSearchCondition());
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    /** 회원이 바뀌면 다시 집계 (테스트는 같은 스레드에서 바로 실행) */
+    @Test
+    public void refreshOnMemberChange() {
+        AtomicInteger loads = new AtomicInteger();
+        TeamStatsCache cache = new TeamStatsCache(condition -> stats(loads.incrementAndGet()), Runnable::run,
+                Duration.ofMinutes(1), Duration.ofMinutes(5), 100);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.get(condition);
+        cache.onMemberChanged(MemberChangedEvent.bulk());
+
+        assertThat(cache.get(condition)).extracting("memberCount").containsExactly(2L);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    /** 변경이 몰려도 예약된 재집계 하나로 합친다 - 재집계가 시작된 뒤의 변경은 다음 재집계로 */
+    @Test
+    public void coalesceRefreshes() {
+        AtomicInteger loads = new AtomicInteger();
+        List<Runnable> scheduled = new ArrayList<>();
+        TeamStatsCache cache = new TeamStatsCache(condition -> stats(loads.incrementAndGet()), scheduled::add,
+                Duration.ofMinutes(1), Duration.ofMinutes(5), 100);
+        MemberSearchCondition ageGoe = new MemberSearchCondition();
+        ageGoe.setAgeGoe(20);
+        cache.get(new MemberSearchCondition());
+        cache.get(ageGoe);
+        assertThat(loads.get()).isEqualTo(2);
+
+        for (int i = 0; i < 1000; i++) cache.onMemberChanged(MemberChangedEvent.bulk());
+        cache.onTeamChanged(TeamChangedEvent.saved(new Team("teamA")));
+        runAll(scheduled); //Caffeine 내부 작업도 같은 executor로 온다
+        assertThat(loads.get()).isEqualTo(4); //변경 1001건이어도 키마다 한 번
+        assertThat(cache.get(ageGoe).get(0).getMemberCount()).isGreaterThan(2L); //두 키 모두 새 값
+        assertThat(cache.get(new MemberSearchCondition()).get(0).getMemberCount()).isGreaterThan(2L);
+
+        cache.onMemberChanged(MemberChangedEvent.bulk());
+        runAll(scheduled);
+        assertThat(loads.get()).isEqualTo(6);
+    }
+
+    /** 재집계 스레드가 가득 차면 비워서 다음 조회 때 집계 */
+    @Test
+    public void invalidateWhenRejected() {
+        AtomicInteger loads = new AtomicInteger();
+        TeamStatsCache cache = new TeamStatsCache(condition -> stats(loads.incrementAndGet()),
+                task -> { throw new RejectedExecutionException(); },
+                Duration.ofMinutes(1), Duration.ofMinutes(5), 100);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.get(condition);
+        cache.onMemberChanged(MemberChangedEvent.bulk());
+        assertThat(cache.get(condition)).extracting("memberCount").containsExactly(2L);
+    }
+
+    private void runAll(List<Runnable> scheduled) {
+        while (!scheduled.isEmpty()) scheduled.remove(0).run();
+    }
+
+    private List<TeamStatsDto> stats(int count) {
+        return List.of(new TeamStatsDto("teamA", (long) count, 10.0, 10, 10));
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired TeamStatsRepository teamStatsRepository;
+
+    @Test
+    public void stats() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));  //팀 없는 회원은 제외
+
+        List<TeamStatsDto> all = teamStatsRepository.stats(new MemberSearchCondition());
+        assertThat(all).extracting("teamName").containsExactly("teamA", "teamB");
+        TeamStatsDto teamAStats = all.get(0);
+        assertThat(teamAStats.getMemberCount()).isEqualTo(2);
+        assertThat(teamAStats.getAvgAge()).isEqualTo(15.0);
+        assertThat(teamAStats.getMaxAge()).isEqualTo(20);
+        assertThat(teamAStats.getMinAge()).isEqualTo(10);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+        List<TeamStatsDto> ranged = teamStatsRepository.stats(condition);
+        assertThat(ranged).extracting("memberCount").containsExactly(1L, 1L);
+    }
+}
@@ -0,0 +1,107 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.event.MemberChangedEvent;
+
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsernameIndexTest {
+
+    @Test
+    public void prefix() {
+        UsernameIndex index = new UsernameIndex();
+        index.put(3, "member10");
+        index.put(1, "member1");
+        index.put(2, "Member2");
+        index.put(4, "admin");
+
+        assertThat(index.find(UsernameMatch.PREFIX, "member1")).containsExactly(1, 3);
+        assertThat(index.find(UsernameMatch.PREFIX, "MEM")).containsExactly(1, 2, 3); //대소문자 구분 없음
+        assertThat(index.find(UsernameMatch.PREFIX, "x")).isEmpty();
+    }
+
+    @Test
+    public void contains() {
+        UsernameIndex index = new UsernameIndex();
+        index.put(1, "member1");
+        index.put(2, "admember");
+        index.put(3, "ember");
+        index.put(4, "emmber");   //gram(emb, mbe, ber)은 일부 겹치지만 'ember'는 포함하지 않는다
+
+        assertThat(index.find(UsernameMatch.CONTAINS, "ember")).containsExactly(1, 2, 3);
+        assertThat(index.find(UsernameMatch.CONTAINS, "ad")).containsExactly(2);    //3글자 미만은 훑어서
+        assertThat(index.find(UsernameMatch.CONTAINS, "zzz")).isEmpty();
+    }
+
+    @Test
+    public void updateAndRemove() {
+        UsernameIndex index = new UsernameIndex();
+        index.put(1, "member1");
+        index.put(2, "member2");
+        long postings = index.postings();
+
+        index.put(1, "teamLeader");
+        assertThat(index.find(UsernameMatch.PREFIX, "member")).containsExactly(2);
+        assertThat(index.find(UsernameMatch.CONTAINS, "lead")).containsExactly(1);
+
+        index.remove(1);
+        index.remove(99);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.find(UsernameMatch.CONTAINS, "lead")).isEmpty();
+        assertThat(index.postings()).isLessThan(postings);
+        assertThat(index.estimatedBytes()).isPositive();
+    }
+
+    /** 많이 걸리는 keyword도 id 순으로 limit 건에서 멈춘다 */
+    @Test
+    public void limitInIdOrder() {
+        UsernameIndex index = new UsernameIndex();
+        for (int id = 100; id >= 1; id--) {
+            index.put(id, "member" + id);
+        }
+        index.put(101, "admin");
+
+        assertThat(index.find(UsernameMatch.PREFIX, "member", 3)).containsExactly(1, 2, 3);   //구간이 limit보다 크면 id 순으로 훑는다
+        assertThat(index.find(UsernameMatch.PREFIX, "member10", 3)).containsExactly(10, 100);
+        assertThat(index.find(UsernameMatch.CONTAINS, "mber", 3)).containsExactly(1, 2, 3);
+        assertThat(index.find(UsernameMatch.CONTAINS, "9", 2)).containsExactly(9, 19);       //3글자 미만
+        assertThat(index.find(UsernameMatch.CONTAINS, "mber", 0)).isEmpty();
+        assertThat(index.find(UsernameMatch.PREFIX, "member")).hasSize(100);
+    }
+
+    /** rebuild가 member 테이블을 읽는 동안 커밋된 변경도 새 인덱스에 남는다 */
+    @Test
+    public void changesDuringRebuildAreKept() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        MemberUsernameIndex memberUsernameIndex = new MemberUsernameIndex(
+                jdbcTemplate, mock(PlatformTransactionManager.class), 100);
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L);
+        when(rs.getString(2)).thenReturn("member1");
+        doAnswer(invocation -> {
+            //읽기 시작한 뒤에 member2가 저장되고 커밋됨 - 읽고 있는 스냅샷에는 없다
+            Member saved = new Member("member2");
+            saved.setId(2L);
+            memberUsernameIndex.onMemberChanged(MemberChangedEvent.saved(saved));
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        memberUsernameIndex.rebuild();
+
+        assertThat(memberUsernameIndex.findIds(UsernameMatch.PREFIX, "member")).containsExactly(1, 2);
+    }
+}
@@ -0,0 +1,84 @@
+package study.querydsl.seed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.event.MemberChangedEvent;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@RecordApplicationEvents
+class MemberSeederTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired MemberSeeder memberSeeder;
+    @Autowired ApplicationEvents events;
+
+    @Test
+    public void seed() {
+        SeedProperties properties = new SeedProperties();
+        properties.setTeams(3);
+        properties.setMembersPerTeam(100);
+        properties.setAgeDistribution(AgeDistribution.NORMAL);
+        properties.setAgeMin(20);
+        properties.setAgeMax(40);
+        properties.setBatchSize(50);       //flush/clear가 여러 번 일어나도록
+        properties.setCommitInterval(120);
+
+        SeedReport report = memberSeeder.seed(properties);
+
+        assertThat(report.getTeams()).isEqualTo(3);
+        assertThat(report.getMembers()).isEqualTo(300);
+
+        Long members = em.createQuery("select count(m) from Member m where m.team is not null", Long.class)
+                .getSingleResult();
+        assertThat(members).isEqualTo(300);
+
+        //팀마다 고르게
+        Long teamBMembers = em.createQuery("select count(m) from Member m where m.team.name = 'teamB'", Long.class)
+                .getSingleResult();
+        assertThat(teamBMembers).isEqualTo(100);
+
+        Object[] ageRange = em.createQuery("select min(m.age), max(m.age) from Member m", Object[].class)
+                .getSingleResult();
+        assertThat((Integer) ageRange[0]).isGreaterThanOrEqualTo(20);
+        assertThat((Integer) ageRange[1]).isLessThanOrEqualTo(40);
+
+        //row마다가 아니라 청크(120, 120, 60)마다 BULK 이벤트 한 번 - 읽기 모델은 그걸로 채워진다
+        assertThat(events.stream(MemberChangedEvent.class))
+                .extracting(MemberChangedEvent::getType)
+                .containsExactly(MemberChangedEvent.Type.BULK, MemberChangedEvent.Type.BULK, MemberChangedEvent.Type.BULK);
+        Number projected = (Number) em.createNativeQuery("select count(*) from member_search s" +
+                        " join team t on t.id = s.team_id where t.name in ('teamA', 'teamB', 'teamC')")
+                .getSingleResult();
+        assertThat(projected.longValue()).isEqualTo(members);
+    }
+
+    /**
+     * 테스트 프로파일의 SQL 한도(트랜잭션당 200, 넘으면 실패) 아래에서도 시드는 끝까지 간다
+     * batchSize 1 이면 insert가 row마다 따로 나가서 한 트랜잭션에 300건이 넘는다
+     */
+    @Test
+    public void seedUnderStatementGuard() {
+        SeedProperties properties = new SeedProperties();
+        properties.setTeams(1);
+        properties.setMembersPerTeam(300);
+        properties.setBatchSize(1);
+        properties.setCommitInterval(300);
+
+        assertThat(memberSeeder.seed(properties).getMembers()).isEqualTo(300);
+
+        Long members = em.createQuery("select count(m) from Member m where m.team.name = 'teamA'", Long.class)
+                .getSingleResult();
+        assertThat(members).isEqualTo(300);
+    }
+}